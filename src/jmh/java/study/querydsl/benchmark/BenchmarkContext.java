@@ -0,0 +1,30 @@
+package study.querydsl.benchmark;
+
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.QuerydslApplication;
+
+/**
+ * 벤치마크용 스프링 컨텍스트.
+ * 메모리 H2에 InitMember(local 프로필)로 데이터를 넣고 SQL 로그는 끔
+ */
+public class BenchmarkContext {
+
+    public static final int MEMBER_COUNT = 20_000;
+    public static final int TEAM_COUNT = 10;
+
+    public static ConfigurableApplicationContext start(String name) {
+        return new SpringApplicationBuilder(QuerydslApplication.class)
+                .web(WebApplicationType.NONE)
+                .run("--spring.datasource.url=jdbc:h2:mem:" + name + ";DB_CLOSE_DELAY=-1",
+                        "--spring.profiles.active=local",
+                        "--init-member.member-count=" + MEMBER_COUNT,
+                        "--init-member.team-count=" + TEAM_COUNT,
+                        "--spring.jpa.properties.hibernate.format_sql=false",
+                        "--spring.jpa.properties.hibernate.use_sql_comments=false",
+                        "--decorator.datasource.p6spy.enable-logging=false",
+                        "--logging.level.org.hibernate.SQL=warn",
+                        "--spring.main.banner-mode=off");
+    }
+}
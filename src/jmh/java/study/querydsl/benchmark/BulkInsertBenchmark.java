@@ -0,0 +1,99 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * member insert 처리량 비교 (결과는 row당 시간, -prof gc로 row당 할당량)
+ * - perEntitySave: MemberJpaRepository.save를 row마다 호출 (row마다 트랜잭션)
+ * - springDataSaveAll: JpaRepository.saveAll (한 트랜잭션, flush/clear 없음)
+ * - batchInserter: MemberJpaRepository.saveAll (batch_size마다 flush/clear, JDBC batch insert)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class BulkInsertBenchmark {
+
+    private static final int ROWS = 10_000;
+
+    ConfigurableApplicationContext context;
+    EntityManager em;
+    MemberJpaRepository memberJpaRepository;
+    MemberRepository memberRepository;
+    TransactionTemplate tx;
+    Team team;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("insert");
+        em = context.getBean(EntityManager.class);
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberRepository = context.getBean(MemberRepository.class);
+        tx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+        team = tx.execute(status -> em.createQuery("select t from Team t", Team.class)
+                .setMaxResults(1)
+                .getSingleResult());
+    }
+
+    // 매 iteration마다 넣은 row를 지워서 테이블 크기를 같게 유지
+    @TearDown(Level.Iteration)
+    public void deleteInserted() {
+        tx.executeWithoutResult(status -> em.createQuery("delete from Member m where m.userName like 'bulk%'")
+                .executeUpdate());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public void perEntitySave() {
+        for (Member member : newMembers()) {
+            memberJpaRepository.save(member);
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public List<Member> springDataSaveAll() {
+        return memberRepository.saveAll(newMembers());
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int batchInserter() {
+        return memberJpaRepository.saveAll(newMembers());
+    }
+
+    private List<Member> newMembers() {
+        List<Member> members = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            Member member = new Member("bulk" + i, i % 100);
+            member.setTeam(team);   // team.members 컬렉션에 쌓이지 않도록 연관관계만 연결
+            members.add(member);
+        }
+        return members;
+    }
+}
@@ -0,0 +1,87 @@
+package study.querydsl.benchmark;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.export.MemberColumnarWriter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * export 포맷별 직렬화 비용 (DB 없이 row 1000개를 메모리 버퍼에 씀). 결과는 row당 시간.
+ * - jackson       : ObjectMapper로 List<MemberTeamDto> 직렬화
+ * - jsonGenerator : /v1/members/export 처럼 JsonGenerator로 직접 씀
+ * - columnar      : /v1/members/export/columnar (MemberColumnarWriter)
+ * 크기 비교는 MemberColumnarWriterTest
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ExportFormatBenchmark {
+
+    private static final int ROWS = 1000;
+
+    final ObjectMapper objectMapper = new ObjectMapper();
+    final ByteArrayOutputStream out = new ByteArrayOutputStream(128 * 1024);
+    List<MemberTeamDto> rows;
+
+    @Setup
+    public void setUp() {
+        rows = new ArrayList<>();
+        for (long i = 1; i <= ROWS; i++) {
+            rows.add(new MemberTeamDto(i, "member" + i, (int) (i % 100), i % 10, "team" + i % 10));
+        }
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int jackson() throws IOException {
+        out.reset();
+        objectMapper.writeValue(out, rows);
+        return out.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int jsonGenerator() throws IOException {
+        out.reset();
+        try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+            json.writeStartArray();
+            for (MemberTeamDto row : rows) {
+                json.writeStartObject();
+                json.writeNumberField("memberId", row.getMemberId());
+                json.writeStringField("userName", row.getUserName());
+                json.writeNumberField("age", row.getAge());
+                json.writeNumberField("teamId", row.getTeamId());
+                json.writeStringField("teamName", row.getTeamName());
+                json.writeEndObject();
+            }
+            json.writeEndArray();
+        }
+        return out.size();
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(ROWS)
+    public int columnar() throws IOException {
+        out.reset();
+        MemberColumnarWriter writer = new MemberColumnarWriter(out);
+        for (MemberTeamDto row : rows) {
+            writer.row(row.getMemberId(), row.getUserName(), row.getAge(), row.getTeamId(), row.getTeamName());
+        }
+        writer.finish();
+        return out.size();
+    }
+}
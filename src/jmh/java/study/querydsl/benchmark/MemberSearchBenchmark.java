@@ -0,0 +1,112 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+import study.querydsl.repository.MemberRepository;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 검색 경로별 처리량 비교. -prof gc로 operation당 할당량도 같이 봄
+ * - 리스트 검색: BooleanBuilder vs where 파라미터, DTO vs 엔티티 프로젝션
+ * - 페이징: simple vs complex vs keyset, 페이지 깊이별
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+public class MemberSearchBenchmark {
+
+    private static final int PAGE_SIZE = 20;
+
+    @Param({"0", "10", "500"})
+    int pageNumber;
+
+    ConfigurableApplicationContext context;
+    MemberJpaRepository memberJpaRepository;
+    MemberRepository memberRepository;
+
+    // 리스트 검색: 팀 + 나이 범위 (수백 건)
+    MemberSearchCondition listCondition;
+    // 페이징: 나이 조건만 (대부분의 member)
+    MemberSearchCondition pageCondition;
+    Pageable pageable;
+    Long lastMemberId;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("search");
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        memberRepository = context.getBean(MemberRepository.class);
+
+        listCondition = new MemberSearchCondition();
+        listCondition.setTeamName("teamB");
+        listCondition.setAgeGoe(20);
+        listCondition.setAgeLoe(60);
+
+        pageCondition = new MemberSearchCondition();
+        pageCondition.setAgeGoe(10);
+        pageable = PageRequest.of(pageNumber, PAGE_SIZE);
+
+        // keyset은 바로 앞 페이지의 마지막 id에서 시작
+        lastMemberId = null;
+        if (pageNumber > 0) {
+            List<MemberTeamDto> previous = memberRepository
+                    .searchPageComplex(pageCondition, PageRequest.of(pageNumber - 1, PAGE_SIZE))
+                    .getContent();
+            lastMemberId = previous.get(previous.size() - 1).getMemberId();
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchByBuilder() {
+        return memberJpaRepository.searchByBuilder(listCondition);
+    }
+
+    @Benchmark
+    public List<MemberTeamDto> searchWhereParam() {
+        return memberJpaRepository.search(listCondition);
+    }
+
+    @Benchmark
+    public List<Member> searchEntity() {
+        return memberJpaRepository.searchMember(listCondition);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageSimple() {
+        return memberRepository.searchPageSimple(pageCondition, pageable);
+    }
+
+    @Benchmark
+    public Page<MemberTeamDto> searchPageComplex() {
+        return memberRepository.searchPageComplex(pageCondition, pageable);
+    }
+
+    @Benchmark
+    public Slice<MemberTeamDto> searchSliceByKeyset() {
+        return memberRepository.searchSliceByKeyset(pageCondition, lastMemberId, PAGE_SIZE);
+    }
+}
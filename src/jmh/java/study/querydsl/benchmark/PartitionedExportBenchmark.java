@@ -0,0 +1,58 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.export.MemberPartitionedExporter;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 파티션 수별 /v1/members/export/parallel 처리량 (member 20000건 전체를 버리는 스트림에 씀). 결과는 row당 시간.
+ * partitions=1이 순차 export. 파티션을 늘려도 member-export.max-concurrency와 커넥션 풀,
+ * DB가 처리할 수 있는 동시 쿼리 수 이상으로는 빨라지지 않음 -> 기본값을 정할 때 이 결과를 봄
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class PartitionedExportBenchmark {
+
+    @Param({"1", "2", "4", "8"})
+    int partitions;
+
+    ConfigurableApplicationContext context;
+    MemberPartitionedExporter exporter;
+    final MemberSearchCondition condition = new MemberSearchCondition();
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        // 파티션 8개까지 동시에 돌 수 있게 (풀 크기 10보다는 작게)
+        System.setProperty("member-export.max-concurrency", "8");
+        context = BenchmarkContext.start("export");
+        exporter = context.getBean(MemberPartitionedExporter.class);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+        System.clearProperty("member-export.max-concurrency");
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BenchmarkContext.MEMBER_COUNT)
+    public long exportMerged() throws IOException {
+        return exporter.exportMerged(condition, partitions, OutputStream.nullOutputStream()).getRows();
+    }
+}
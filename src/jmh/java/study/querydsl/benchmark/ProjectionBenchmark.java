@@ -0,0 +1,83 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.Projections;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.support.FastProjections;
+
+import java.util.concurrent.TimeUnit;
+
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+
+/**
+ * row 하나를 DTO로 만드는 비용만 비교 (DB 없이 FactoryExpression.newInstance 호출).
+ * -prof gc로 row당 할당량(gc.alloc.rate.norm)도 같이 봄
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ProjectionBenchmark {
+
+    final Object[] memberRow = {"member1", 10};
+    final Object[] memberTeamRow = {1L, "member1", 10, 2L, "teamA"};
+
+    final FactoryExpression<MemberDto> reflectionBean = Projections.bean(MemberDto.class,
+            member.userName, member.age);
+    final FactoryExpression<MemberDto> reflectionFields = Projections.fields(MemberDto.class,
+            member.userName, member.age);
+    final FactoryExpression<MemberDto> reflectionConstructor = Projections.constructor(MemberDto.class,
+            member.userName, member.age);
+    final FactoryExpression<MemberDto> fastBean = FastProjections.bean(MemberDto.class,
+            member.userName, member.age);
+    final FactoryExpression<MemberDto> fastConstructor = FastProjections.constructor(MemberDto.class,
+            member.userName, member.age);
+
+    final FactoryExpression<MemberTeamDto> queryProjection = new QMemberTeamDto(
+            member.id, member.userName, member.age, team.id, team.name);
+    final FactoryExpression<MemberTeamDto> fastMemberTeamConstructor = FastProjections.constructor(
+            MemberTeamDto.class, member.id, member.userName, member.age, team.id, team.name);
+
+    @Benchmark
+    public MemberDto reflectionBean() {
+        return reflectionBean.newInstance(memberRow);
+    }
+
+    @Benchmark
+    public MemberDto reflectionFields() {
+        return reflectionFields.newInstance(memberRow);
+    }
+
+    @Benchmark
+    public MemberDto reflectionConstructor() {
+        return reflectionConstructor.newInstance(memberRow);
+    }
+
+    @Benchmark
+    public MemberDto fastBean() {
+        return fastBean.newInstance(memberRow);
+    }
+
+    @Benchmark
+    public MemberDto fastConstructor() {
+        return fastConstructor.newInstance(memberRow);
+    }
+
+    @Benchmark
+    public MemberTeamDto queryProjection() {
+        return queryProjection.newInstance(memberTeamRow);
+    }
+
+    @Benchmark
+    public MemberTeamDto fastMemberTeamConstructor() {
+        return fastMemberTeamConstructor.newInstance(memberTeamRow);
+    }
+}
@@ -0,0 +1,69 @@
+package study.querydsl.benchmark;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.repository.MemberJpaRepository;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * 엔티티 리스트(searchMember) 조회 시 요청 하나당 힙 사용량 비교. -prof gc의 gc.alloc.rate.norm(B/op)을 봄
+ * - readWrite: 예전처럼 read-write 트랜잭션 + 힌트 없는 쿼리 (엔티티마다 스냅샷, 커밋 때 flush/더티체킹)
+ * - readOnly: MemberJpaRepository.searchMember (readOnly 트랜잭션 + read-only 힌트)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ReadOnlyTransactionBenchmark {
+
+    ConfigurableApplicationContext context;
+    EntityManager em;
+    MemberJpaRepository memberJpaRepository;
+    TransactionTemplate readWriteTx;
+    MemberSearchCondition condition;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("readonly");
+        em = context.getBean(EntityManager.class);  // 트랜잭션에 묶인 공유 EntityManager
+        memberJpaRepository = context.getBean(MemberJpaRepository.class);
+        readWriteTx = new TransactionTemplate(context.getBean(PlatformTransactionManager.class));
+
+        // 나이 조건만 (수천 건). searchMember의 ageBetween은 ageGoe 조건을 두 번 거는 형태라 두 값을 같게 둠
+        condition = new MemberSearchCondition();
+        condition.setAgeGoe(70);
+        condition.setAgeLoe(70);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        context.close();
+    }
+
+    @Benchmark
+    public List<Member> readWrite() {
+        return readWriteTx.execute(status -> em
+                .createQuery("select m from Member m where m.age >= :ageGoe", Member.class)
+                .setParameter("ageGoe", condition.getAgeGoe())
+                .getResultList());
+    }
+
+    @Benchmark
+    public List<Member> readOnly() {
+        return memberJpaRepository.searchMember(condition);
+    }
+}
@@ -0,0 +1,85 @@
+package study.querydsl.benchmark;
+
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.context.ConfigurableApplicationContext;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.QMemberTeamDto;
+import study.querydsl.repository.MemberSearchQueryCache;
+import study.querydsl.repository.TeamRepository;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QMember.member;
+
+/**
+ * 쿼리 실행 전 단계(조건 -> JPQL -> hibernate Query)만 비교.
+ * querydsl은 매번 BooleanExpression을 만들고 직렬화하고, 캐시는 shape별 JPQL에 바인딩만 함
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class SearchQueryBuildBenchmark {
+
+    ConfigurableApplicationContext context;
+    EntityManager em;
+    MemberSearchQueryCache searchQueryCache;
+    MemberSearchCondition condition;
+    List<Long> teamIds;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        context = BenchmarkContext.start("build");
+        em = context.getBean(EntityManagerFactory.class).createEntityManager();
+        searchQueryCache = context.getBean(MemberSearchQueryCache.class);
+
+        condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(20);
+        condition.setAgeLoe(60);
+        teamIds = context.getBean(TeamRepository.class).findIdsByName(condition.getTeamName());
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        System.out.println("search query cache: size=" + searchQueryCache.size()
+                + ", hitRatio=" + searchQueryCache.getHitRatio());
+        em.close();
+        context.close();
+    }
+
+    @Benchmark
+    public Query querydsl() {
+        return new JPAQueryFactory(em)
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.userName,
+                        member.age,
+                        member.team.id.as("teamId")
+                ))
+                .from(member)
+                .where(hasText(condition.getUserName()) ? member.userName.eq(condition.getUserName()) : null,
+                        teamIds != null ? member.team.id.in(teamIds) : null,
+                        condition.getAgeGoe() != null ? member.age.goe(condition.getAgeGoe()) : null,
+                        condition.getAgeLoe() != null ? member.age.loe(condition.getAgeLoe()) : null)
+                .createQuery();
+    }
+
+    @Benchmark
+    public Query cachedJpql() {
+        return searchQueryCache.createQuery(em, condition, teamIds);
+    }
+}
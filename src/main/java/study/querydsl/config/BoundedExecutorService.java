@@ -0,0 +1,81 @@
+package study.querydsl.config;
+
+import java.util.List;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * 작업마다 스레드를 만드는 executor(virtual thread)에 동시 실행 수 제한을 붙임.
+ * 대기는 작업 스레드 안에서 하므로 제출한 스레드(servlet 스레드)는 막히지 않음.
+ * 실행 중 + 대기 중인 작업이 maxPending을 넘으면 RejectedExecutionException
+ */
+class BoundedExecutorService extends AbstractExecutorService {
+
+    private final ExecutorService delegate;
+    private final Semaphore permits;
+    private final int maxPending;
+    private final AtomicInteger pending = new AtomicInteger();
+
+    BoundedExecutorService(ExecutorService delegate, Semaphore permits, int maxPending) {
+        this.delegate = delegate;
+        this.permits = permits;
+        this.maxPending = maxPending;
+    }
+
+    @Override
+    public void execute(Runnable command) {
+        if (pending.incrementAndGet() > maxPending) {
+            pending.decrementAndGet();
+            throw new RejectedExecutionException("too many pending tasks: " + maxPending);
+        }
+        try {
+            delegate.execute(() -> {
+                try {
+                    permits.acquire();
+                } catch (InterruptedException e) {
+                    pending.decrementAndGet();
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                try {
+                    command.run();
+                } finally {
+                    permits.release();
+                    pending.decrementAndGet();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            pending.decrementAndGet();
+            throw e;
+        }
+    }
+
+    @Override
+    public void shutdown() {
+        delegate.shutdown();
+    }
+
+    @Override
+    public List<Runnable> shutdownNow() {
+        return delegate.shutdownNow();
+    }
+
+    @Override
+    public boolean isShutdown() {
+        return delegate.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated() {
+        return delegate.isTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit) throws InterruptedException {
+        return delegate.awaitTermination(timeout, unit);
+    }
+}
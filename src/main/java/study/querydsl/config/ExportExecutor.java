@@ -0,0 +1,53 @@
+package study.querydsl.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+/**
+ * 파티션 export 전용 executor. 만드는 방식은 SearchExecutor와 같음.
+ * export 파티션은 커넥션을 길게 잡고 있으므로 검색과 스레드/동시 실행 수를 나눠 씀
+ * -> export가 돌아도 검색용 커넥션이 최소 (풀 크기 - member-export.max-concurrency)개는 남음
+ */
+@Slf4j
+@Component
+public class ExportExecutor {
+
+    private final ExecutorService executor;
+    private final int maxConcurrency;
+
+    public ExportExecutor(@Value("${member-export.max-concurrency:4}") int maxConcurrency,
+                          @Value("${member-export.queue-capacity:64}") int queueCapacity,
+                          @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize) {
+        if (maxConcurrency >= poolSize) {
+            log.warn("member-export.max-concurrency({}) >= connection pool size({}): export can starve searches",
+                    maxConcurrency, poolSize);
+        }
+        this.maxConcurrency = maxConcurrency;
+        this.executor = SearchExecutor.newBoundedExecutor("export", maxConcurrency, queueCapacity);
+    }
+
+    public int getMaxConcurrency() {
+        return maxConcurrency;
+    }
+
+    // 포화 상태면 RejectedExecutionException으로 실패한 future
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+}
@@ -0,0 +1,65 @@
+package study.querydsl.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.util.StringUtils;
+
+import javax.sql.DataSource;
+import java.sql.Connection;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * replica 상태를 주기적으로 확인.
+ * lag-query가 있으면 그 결과(초)가 max-lag-seconds 이하일 때만, 없으면 커넥션이 살아 있으면 사용 가능으로 봄
+ * (예: postgres "select extract(epoch from now() - pg_last_xact_replay_timestamp())")
+ */
+@Slf4j
+public class ReplicaLagMonitor {
+
+    private static final int VALID_TIMEOUT_SECONDS = 1;
+
+    private final DataSource replica;
+    private final String lagQuery;
+    private final double maxLagSeconds;
+
+    private volatile boolean replicaAvailable;
+
+    public ReplicaLagMonitor(DataSource replica, String lagQuery, double maxLagSeconds) {
+        this.replica = replica;
+        this.lagQuery = lagQuery;
+        this.maxLagSeconds = maxLagSeconds;
+    }
+
+    public boolean isReplicaAvailable() {
+        return replicaAvailable;
+    }
+
+    @Scheduled(fixedDelayString = "${datasource.routing.check-interval-millis:5000}")
+    public void check() {
+        boolean available;
+        try (Connection connection = replica.getConnection()) {
+            available = StringUtils.hasText(lagQuery)
+                    ? lagOf(connection) <= maxLagSeconds
+                    : connection.isValid(VALID_TIMEOUT_SECONDS);
+        } catch (SQLException e) {
+            log.debug("replica check failed", e);
+            available = false;
+        }
+
+        if (available != replicaAvailable) {
+            log.warn("replica {}", available ? "available -> read-only transactions use replica"
+                    : "unavailable or lagging -> read-only transactions fall back to primary");
+        }
+        replicaAvailable = available;
+    }
+
+    private double lagOf(Connection connection) throws SQLException {
+        try (Statement statement = connection.createStatement();
+             ResultSet rs = statement.executeQuery(lagQuery)) {
+            // 결과가 없으면(복제가 아직 시작 안 됨) 지연된 것으로 봄
+            return rs.next() ? rs.getDouble(1) : Double.MAX_VALUE;
+        }
+    }
+}
@@ -0,0 +1,29 @@
+package study.querydsl.config;
+
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * readOnly 트랜잭션은 replica, 나머지(쓰기, 트랜잭션 밖)는 primary로 보냄.
+ * replica가 지연되거나 죽어 있으면(ReplicaLagMonitor) readOnly여도 primary로 보냄.
+ * 트랜잭션 시작 시점에는 아직 readOnly 여부가 정해지지 않아서 LazyConnectionDataSourceProxy로 감싸서 사용해야 함
+ */
+public class ReplicationRoutingDataSource extends AbstractRoutingDataSource {
+
+    public static final String PRIMARY = "primary";
+    public static final String REPLICA = "replica";
+
+    private final ReplicaLagMonitor lagMonitor;
+
+    public ReplicationRoutingDataSource(ReplicaLagMonitor lagMonitor) {
+        this.lagMonitor = lagMonitor;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        if (TransactionSynchronizationManager.isCurrentTransactionReadOnly() && lagMonitor.isReplicaAvailable()) {
+            return REPLICA;
+        }
+        return PRIMARY;
+    }
+}
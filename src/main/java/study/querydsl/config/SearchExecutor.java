@@ -0,0 +1,73 @@
+package study.querydsl.config;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * 비동기 검색(content/count 동시 실행)용 executor.
+ * JDK 21 이상이면 virtual thread, 아니면 고정 크기 스레드 풀을 씀.
+ * 어느 쪽이든 동시에 도는 쿼리 수는 max-concurrency로 제한 (커넥션 풀 크기에 맞춤).
+ * 대기 중인 작업이 queue-capacity를 넘으면 호출한 스레드에서 실행하지 않고 실패한 future를 바로 반환
+ * (servlet 스레드가 쿼리를 대신 실행하면 async 모드의 의미가 없음).
+ * Executor 빈으로 등록하면 스프링 기본 applicationTaskExecutor가 빠지므로 감싸서 등록함
+ */
+@Slf4j
+@Component
+public class SearchExecutor {
+
+    private final ExecutorService executor;
+
+    public SearchExecutor(@Value("${search-executor.max-concurrency:10}") int maxConcurrency,
+                          @Value("${search-executor.queue-capacity:1000}") int queueCapacity) {
+        this.executor = newBoundedExecutor("search", maxConcurrency, queueCapacity);
+    }
+
+    // ExportExecutor도 같은 방식으로 만듦
+    static ExecutorService newBoundedExecutor(String name, int maxConcurrency, int queueCapacity) {
+        ExecutorService virtualThreads = newVirtualThreadPerTaskExecutor();
+        if (virtualThreads != null) {
+            log.info("{} executor: virtual threads (max concurrency {})", name, maxConcurrency);
+            return new BoundedExecutorService(virtualThreads, new Semaphore(maxConcurrency),
+                    maxConcurrency + queueCapacity);
+        }
+        log.info("{} executor: {} platform threads", name, maxConcurrency);
+        // 큐가 가득 차면 RejectedExecutionException (호출한 스레드에서 대신 실행하지 않음)
+        return new ThreadPoolExecutor(maxConcurrency, maxConcurrency, 60, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    // 포화 상태면 RejectedExecutionException으로 실패한 future
+    public <T> CompletableFuture<T> supplyAsync(Supplier<T> task) {
+        try {
+            return CompletableFuture.supplyAsync(task, executor);
+        } catch (RejectedExecutionException e) {
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // 빌드는 java 11 기준이라 reflection으로 호출
+    private static ExecutorService newVirtualThreadPerTaskExecutor() {
+        try {
+            return (ExecutorService) Executors.class.getMethod("newVirtualThreadPerTaskExecutor").invoke(null);
+        } catch (ReflectiveOperationException e) {
+            return null;
+        }
+    }
+}
@@ -1,6 +1,8 @@
 package study.querydsl.controller;
 
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Profile;
 import org.springframework.stereotype.Component;
 import org.springframework.transaction.annotation.Transactional;
@@ -10,7 +12,18 @@ import study.querydsl.entity.Team;
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
 import javax.persistence.PersistenceContext;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.IntUnaryOperator;
 
+/**
+ * local 프로필 샘플 데이터.
+ * 기본값은 예전과 같이 teamA, teamB에 member0~99를 번갈아 넣고,
+ * init-member.* 설정으로 부하 테스트용 수백만 건도 만들 수 있음.
+ * (대량으로 넣을 때는 SQL 로그를 꺼야 제 속도가 나옴)
+ */
+@Slf4j
 @Profile("local")
 @Component
 @RequiredArgsConstructor
@@ -18,26 +31,83 @@ public class InitMember {
 
     private final InitMemberService initMemberService;
 
+    @Value("${init-member.member-count:100}")
+    private int memberCount;
+    @Value("${init-member.team-count:2}")
+    private int teamCount;
+    @Value("${init-member.age-min:0}")
+    private int ageMin;
+    @Value("${init-member.age-max:99}")
+    private int ageMax;
+    // sequential: ageMin부터 차례대로 반복, uniform: ageMin~ageMax 균등 분포
+    @Value("${init-member.age-distribution:sequential}")
+    private String ageDistribution;
+    // 트랜잭션 하나에 넣을 member 수
+    @Value("${init-member.chunk-size:100000}")
+    private int chunkSize;
+
     @PostConstruct
     public void init() {
-        initMemberService.init();
+        long start = System.nanoTime();
+
+        List<Long> teamIds = initMemberService.initTeams(teamCount);
+        IntUnaryOperator ageOf = ageOf();
+        for (int from = 0; from < memberCount; from += chunkSize) {
+            initMemberService.initMembers(from, Math.min(from + chunkSize, memberCount), teamIds, ageOf);
+        }
+
+        double seconds = (System.nanoTime() - start) / 1_000_000_000.0;
+        log.info("init member: teams={}, members={}, elapsed={}s, {} rows/sec",
+                teamCount, memberCount, String.format("%.2f", seconds),
+                String.format("%.0f", (teamCount + memberCount) / Math.max(seconds, 0.001)));
+    }
+
+    private IntUnaryOperator ageOf() {
+        int range = ageMax - ageMin + 1;
+        if ("uniform".equals(ageDistribution)) {
+            Random random = new Random(42);     // 매번 같은 데이터가 나오도록 seed 고정
+            return i -> ageMin + random.nextInt(range);
+        }
+        return i -> ageMin + i % range;
     }
 
     @Component
     static class InitMemberService {
         @PersistenceContext private EntityManager em;
 
+        // hibernate.jdbc.batch_size 만큼 모이면 flush 해서 insert를 batch로 보내고 clear로 메모리를 비움
+        @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1000}")
+        private int batchSize;
+
         @Transactional
-        public void init() {
-            Team teamA = new Team("teamA");
-            Team teamB = new Team("teamB");
-            em.persist(teamA);
-            em.persist(teamB);
-
-            for (int i = 0; i < 100; i++) {
-                Team selectedTeam = i % 2 == 0 ? teamA : teamB;
-                em.persist(new Member("member" + i, i, selectedTeam));
+        public List<Long> initTeams(int teamCount) {
+            List<Long> teamIds = new ArrayList<>();
+            for (int i = 0; i < teamCount; i++) {
+                Team team = new Team(teamName(i));
+                em.persist(team);
+                teamIds.add(team.getId());
             }
+            return teamIds;
+        }
+
+        @Transactional
+        public void initMembers(int from, int to, List<Long> teamIds, IntUnaryOperator ageOf) {
+            for (int i = from; i < to; i++) {
+                Member member = new Member("member" + i, ageOf.applyAsInt(i));
+                // new Member(.., team)은 team.members 컬렉션에 계속 쌓이므로 프록시만 연결
+                member.setTeam(em.getReference(Team.class, teamIds.get(i % teamIds.size())));
+                em.persist(member);
+
+                if ((i - from + 1) % batchSize == 0) {
+                    em.flush();
+                    em.clear();
+                }
+            }
+        }
+
+        // teamA ~ teamZ, 그 이상은 team26, team27 ...
+        private String teamName(int index) {
+            return index < 26 ? "team" + (char) ('A' + index) : "team" + index;
         }
     }
 }
@@ -1,16 +1,33 @@
 package study.querydsl.controller;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
-import org.springframework.data.domain.Page;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Pageable;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+import study.querydsl.dto.MemberCursorPage;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.export.MemberColumnarWriter;
+import study.querydsl.export.MemberPartitionedExporter;
+import study.querydsl.repository.MemberJdbcRepository;
 import study.querydsl.repository.MemberJpaRepository;
 import study.querydsl.repository.MemberRepository;
 
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequiredArgsConstructor
@@ -18,21 +35,161 @@ public class MemberController {
 
     private final MemberJpaRepository memberJpaRepository;
     private final MemberRepository memberRepository;
+    private final MemberJdbcRepository memberJdbcRepository;
+    private final MemberPartitionedExporter memberPartitionedExporter;
+    private final ObjectMapper objectMapper;
 
+    // jpa | jdbc (jdbc는 영속성 컨텍스트 없이 필요한 컬럼만 읽어서 DTO로 바로 매핑)
+    @Value("${member-search.read-path:jpa}")
+    private String readPath;
+
+    // sync | async (async는 content/count 쿼리를 동시에 실행하고 servlet 스레드를 바로 반환)
+    @Value("${member-search.execution:sync}")
+    private String execution;
+
+    // keyset 페이지 최대 크기 (Pageable 최대 크기와 같은 설정)
+    @Value("${spring.data.web.pageable.max-page-size:2000}")
+    private int maxPageSize;
 
     @GetMapping("/v1/members")
     public List<MemberTeamDto> searchMemberV1(MemberSearchCondition condition) {
+        if (isJdbcReadPath()) {
+            return memberJdbcRepository.search(condition);
+        }
         return memberJpaRepository.search(condition);
     }
 
+    // 전체 결과를 List로 만들지 않고 한 줄에 하나씩 NDJSON으로 내려줌
+    @GetMapping("/v1/members/stream")
+    public ResponseEntity<StreamingResponseBody> streamMemberV1(MemberSearchCondition condition) {
+        StreamingResponseBody body = out ->
+                memberJpaRepository.streamSearch(condition, memberTeamDto -> writeLine(out, memberTeamDto));
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * 전체 내보내기용. 커서에서 읽은 row를 MemberTeamDto 없이 바로 JSON 배열로 씀
+     * (DTO 생성 + Jackson reflection 직렬화가 없어서 힙 사용량이 일정하고 row/sec가 높음)
+     */
+    @GetMapping("/v1/members/export")
+    public ResponseEntity<StreamingResponseBody> exportMemberV1(MemberSearchCondition condition) {
+        StreamingResponseBody body = out -> {
+            try (JsonGenerator json = objectMapper.getFactory().createGenerator(out)) {
+                json.writeStartArray();
+                memberJdbcRepository.forEachRow(condition, (memberId, userName, age, teamId, teamName) -> {
+                    json.writeStartObject();
+                    json.writeNumberField("memberId", memberId);
+                    json.writeStringField("userName", userName);
+                    json.writeNumberField("age", age);
+                    if (teamId != null) {
+                        json.writeNumberField("teamId", teamId);
+                    } else {
+                        json.writeNullField("teamId");
+                    }
+                    json.writeStringField("teamName", teamName);
+                    json.writeEndObject();
+                });
+                json.writeEndArray();
+            }
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(body);
+    }
+
+    // 같은 결과를 컬럼 단위 바이너리로 (포맷은 MemberColumnarFormat, 읽을 때는 MemberColumnarReader)
+    @GetMapping("/v1/members/export/columnar")
+    public ResponseEntity<StreamingResponseBody> exportMemberColumnarV1(MemberSearchCondition condition) {
+        StreamingResponseBody body = out -> {
+            MemberColumnarWriter writer = new MemberColumnarWriter(out);
+            memberJdbcRepository.forEachRow(condition, writer);
+            writer.finish();
+        };
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_OCTET_STREAM)
+                .body(body);
+    }
+
+    // member id 범위를 나눠서 동시에 조회하고 id 순서대로 이어 붙인 NDJSON (파티션 수 기본값은 member-export.partitions)
+    @GetMapping("/v1/members/export/parallel")
+    public ResponseEntity<StreamingResponseBody> exportMemberParallelV1(MemberSearchCondition condition,
+                                                                        @RequestParam(required = false) Integer partitions) {
+        int partitionCount = partitions != null ? partitions : memberPartitionedExporter.getDefaultPartitions();
+        if (partitionCount <= 0 || partitionCount > memberPartitionedExporter.getMaxPartitions()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST,
+                    "partitions must be between 1 and " + memberPartitionedExporter.getMaxPartitions());
+        }
+        StreamingResponseBody body = out -> memberPartitionedExporter.exportMerged(condition, partitionCount, out);
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(body);
+    }
+
+    /**
+     * sync면 Page를 그대로 반환 (servlet 스레드에서 조회, async 디스패치 없음)
+     * async면 CompletableFuture<Page>를 반환하고 servlet 스레드는 바로 반환됨
+     */
     @GetMapping("/v2/members")
-    public Page<MemberTeamDto> searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
+    public Object searchMemberV2(MemberSearchCondition condition, Pageable pageable) {
+        if (isAsyncExecution()) {
+            return memberRepository.searchPageComplexAsync(condition, pageable);
+        }
         return memberRepository.searchPageSimple(condition, pageable);
     }
 
+    // 반환 타입은 /v2와 같음 (sync면 Page, async면 CompletableFuture<Page>)
     @GetMapping("/v3/members")
-    public Page<MemberTeamDto> searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
+    public Object searchMemberV3(MemberSearchCondition condition, Pageable pageable) {
+        if (isJdbcReadPath()) {
+            return memberJdbcRepository.searchPage(condition, pageable);
+        }
+        if (isAsyncExecution()) {
+            return memberRepository.searchPageComplexAsync(condition, pageable);
+        }
         return memberRepository.searchPageComplex(condition, pageable);
     }
 
+    // offset 대신 continuation token으로 다음 페이지를 요청 (깊은 페이지도 첫 페이지와 비용이 같음)
+    @GetMapping("/v4/members")
+    public MemberCursorPage searchMemberV4(MemberSearchCondition condition,
+                                           @RequestParam(required = false) String token,
+                                           @RequestParam(defaultValue = "20") int size) {
+        if (size <= 0) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, "size must be positive");
+        }
+        Long lastMemberId;
+        try {
+            lastMemberId = MemberCursorPage.decodeToken(token);
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage(), e);
+        }
+        // Pageable을 받는 /v2, /v3처럼 최대 크기를 넘으면 최대 크기로 줄임
+        return MemberCursorPage.of(memberRepository.searchSliceByKeyset(condition, lastMemberId,
+                Math.min(size, maxPageSize)));
+    }
+
+    // SearchExecutor/ExportExecutor가 포화 상태면 servlet 스레드에서 대신 실행하지 않고 바로 503
+    @ExceptionHandler(RejectedExecutionException.class)
+    public ResponseEntity<Void> searchExecutorSaturated() {
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).build();
+    }
+
+    private boolean isJdbcReadPath() {
+        return "jdbc".equalsIgnoreCase(readPath);
+    }
+
+    private boolean isAsyncExecution() {
+        return "async".equalsIgnoreCase(execution);
+    }
+
+    private void writeLine(OutputStream out, Object value) {
+        try {
+            out.write(objectMapper.writeValueAsBytes(value));
+            out.write('\n');
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
 }
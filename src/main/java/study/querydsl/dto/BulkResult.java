@@ -0,0 +1,24 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+/**
+ * 청크 단위 벌크 update/delete 결과
+ */
+@Data
+public class BulkResult {
+
+    private long affectedRows;
+    private int chunks;
+    private long elapsedMillis;
+
+    public BulkResult(long affectedRows, int chunks, long elapsedMillis) {
+        this.affectedRows = affectedRows;
+        this.chunks = chunks;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? affectedRows : affectedRows * 1000.0 / elapsedMillis;
+    }
+}
@@ -0,0 +1,59 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+import org.springframework.data.domain.Slice;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * keyset(seek) 페이징 응답.
+ * nextToken은 마지막으로 내려준 member id를 감싼 불투명 토큰이라 클라이언트는 그대로 다시 넘기기만 하면 됨
+ */
+@Data
+public class MemberCursorPage {
+
+    private static final String TOKEN_PREFIX = "m:";
+
+    private List<MemberTeamDto> content;
+    private String nextToken;
+    private boolean hasNext;
+
+    public MemberCursorPage(List<MemberTeamDto> content, String nextToken, boolean hasNext) {
+        this.content = content;
+        this.nextToken = nextToken;
+        this.hasNext = hasNext;
+    }
+
+    public static MemberCursorPage of(Slice<MemberTeamDto> slice) {
+        List<MemberTeamDto> content = slice.getContent();
+        String nextToken = slice.hasNext() && !content.isEmpty()
+                ? encodeToken(content.get(content.size() - 1).getMemberId())
+                : null;
+        return new MemberCursorPage(content, nextToken, slice.hasNext());
+    }
+
+    public static String encodeToken(Long lastMemberId) {
+        byte[] raw = (TOKEN_PREFIX + lastMemberId).getBytes(StandardCharsets.UTF_8);
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw);
+    }
+
+    /**
+     * 토큰이 없으면 첫 페이지(null), 형식이 틀리면 IllegalArgumentException
+     */
+    public static Long decodeToken(String token) {
+        if (token == null || token.isEmpty()) {
+            return null;
+        }
+        String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        if (!raw.startsWith(TOKEN_PREFIX)) {
+            throw new IllegalArgumentException("invalid continuation token: " + token);
+        }
+        try {
+            return Long.valueOf(raw.substring(TOKEN_PREFIX.length()));
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException("invalid continuation token: " + token, e);
+        }
+    }
+}
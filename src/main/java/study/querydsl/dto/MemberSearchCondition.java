@@ -2,6 +2,8 @@ package study.querydsl.dto;
 
 import lombok.Data;
 
+import static org.springframework.util.StringUtils.hasText;
+
 @Data
 public class MemberSearchCondition {
     //회원명, 팀명, 나이(ageGoe, ageLoe)
@@ -11,4 +13,13 @@ public class MemberSearchCondition {
     private Integer ageGoe;     // 값이 null일수도
     private Integer ageLoe;
 
+    // 빈 문자열은 조건이 없는 것과 같으므로 null로 맞춘 복사본 (캐시 키용)
+    public MemberSearchCondition normalize() {
+        MemberSearchCondition normalized = new MemberSearchCondition();
+        normalized.setUserName(hasText(userName) ? userName : null);
+        normalized.setTeamName(hasText(teamName) ? teamName : null);
+        normalized.setAgeGoe(ageGoe);
+        normalized.setAgeLoe(ageLoe);
+        return normalized;
+    }
 }
@@ -20,4 +20,10 @@ public class MemberTeamDto {
         this.teamId = teamId;
         this.teamName = teamName;
     }
+
+    // 팀 이름 조건으로 검색할 때는 team 조인 없이 team id만 조회하고 팀 이름은 조건 값으로 채움
+    @QueryProjection
+    public MemberTeamDto(Long memberId, String userName, int age, Long teamId) {
+        this(memberId, userName, age, teamId, null);
+    }
 }
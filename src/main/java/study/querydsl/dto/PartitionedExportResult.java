@@ -0,0 +1,28 @@
+package study.querydsl.dto;
+
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * member id 범위별 병렬 export 결과 (파티션별 row 수는 파일 순서와 같음)
+ */
+@Data
+public class PartitionedExportResult {
+
+    private long rows;
+    private List<Long> partitionRows;
+    private List<String> files;
+    private long elapsedMillis;
+
+    public PartitionedExportResult(long rows, List<Long> partitionRows, List<String> files, long elapsedMillis) {
+        this.rows = rows;
+        this.partitionRows = partitionRows;
+        this.files = files;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    public double getRowsPerSecond() {
+        return elapsedMillis == 0 ? rows : rows * 1000.0 / elapsedMillis;
+    }
+}
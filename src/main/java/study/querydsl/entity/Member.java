@@ -1,18 +1,28 @@
 package study.querydsl.entity;
 
 import lombok.*;
+import study.querydsl.repository.support.CountQueryCacheEvictListener;
 
 import javax.persistence.*;
 
 @Entity
+@Table(indexes = {
+        @Index(name = "idx_member_user_name", columnList = "user_name"),
+        @Index(name = "idx_member_team_age", columnList = "team_id, age, user_name"),  // 팀 + 나이 범위, jdbc 조회 커버링
+        @Index(name = "idx_member_team_id", columnList = "team_id, member_id"),        // 팀 조건 keyset (id 순서)
+        @Index(name = "idx_member_age_id", columnList = "age, member_id")              // 나이 범위만 있을 때
+})
+@EntityListeners(CountQueryCacheEvictListener.class)
 @Getter
 @Setter
 @NoArgsConstructor(access = AccessLevel.PROTECTED)
 @ToString(of = {"id", "userName", "age"})
 public class Member {
 
+    // allocationSize만큼 id를 미리 받아두는 pooled 옵티마이저 (insert마다 시퀀스 조회를 하지 않음)
     @Id
-    @GeneratedValue
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "member_seq_generator")
+    @SequenceGenerator(name = "member_seq_generator", sequenceName = "member_seq", allocationSize = 50)
     @Column(name = "member_id")
     private Long id;
     private String userName;
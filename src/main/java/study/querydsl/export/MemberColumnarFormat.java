@@ -0,0 +1,97 @@
+package study.querydsl.export;
+
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * member export 바이너리 포맷 (MemberColumnarWriter / MemberColumnarReader).
+ *
+ * <pre>
+ * header : magic "MBRC"(int) version(byte)
+ * block  : rowCount(varint, 0이면 끝)
+ *          새 팀 사전 항목 수(varint) + [teamId(zigzag varlong) teamName(string)] ...
+ *          memberId 컬럼  : 앞 row와의 차이 (zigzag varlong)  -> id 순서로 쓰면 대부분 1바이트
+ *          age 컬럼       : zigzag varint
+ *          team 컬럼      : 사전 번호 (varint, 0이면 팀 없음)
+ *          userName 컬럼  : 길이+1 (varint, 0이면 null) 전부 -> UTF-8 바이트 전부
+ * string : 길이+1 (varint, 0이면 null) + UTF-8 바이트
+ * </pre>
+ * 팀 이름은 처음 나올 때 한 번만 사전에 쓰고 이후에는 번호만 씀. 사전은 블록을 넘어 누적됨
+ */
+final class MemberColumnarFormat {
+
+    static final int MAGIC = 0x4D425243;    // "MBRC"
+    static final int VERSION = 1;
+
+    private MemberColumnarFormat() {
+    }
+
+    static void writeVarLong(DataOutputStream out, long value) throws IOException {
+        while ((value & ~0x7FL) != 0) {
+            out.writeByte((int) ((value & 0x7F) | 0x80));
+            value >>>= 7;
+        }
+        out.writeByte((int) value);
+    }
+
+    static long readVarLong(DataInputStream in) throws IOException {
+        long value = 0;
+        for (int shift = 0; shift < 64; shift += 7) {
+            int b = in.readUnsignedByte();
+            value |= (long) (b & 0x7F) << shift;
+            if ((b & 0x80) == 0) {
+                return value;
+            }
+        }
+        throw new IOException("Malformed varint");
+    }
+
+    static void writeZigZag(DataOutputStream out, long value) throws IOException {
+        writeVarLong(out, (value << 1) ^ (value >> 63));
+    }
+
+    static long readZigZag(DataInputStream in) throws IOException {
+        long value = readVarLong(in);
+        return (value >>> 1) ^ -(value & 1);
+    }
+
+    static byte[] utf8(String value) {
+        return value == null ? null : value.getBytes(StandardCharsets.UTF_8);
+    }
+
+    static void writeString(DataOutputStream out, String value) throws IOException {
+        byte[] bytes = utf8(value);
+        writeVarLong(out, bytes == null ? 0 : bytes.length + 1);
+        if (bytes != null) {
+            out.write(bytes);
+        }
+    }
+
+    static String readString(DataInputStream in) throws IOException {
+        int length = (int) readVarLong(in);
+        return length == 0 ? null : readUtf8(in, length - 1);
+    }
+
+    static String readUtf8(DataInputStream in, int length) throws IOException {
+        byte[] bytes = new byte[length];
+        in.readFully(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    static void checkHeader(DataInputStream in) throws IOException {
+        try {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a member columnar stream");
+            }
+        } catch (EOFException e) {
+            throw new IOException("Not a member columnar stream", e);
+        }
+        int version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported version " + version);
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package study.querydsl.export;
+
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberRowHandler;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+
+import static study.querydsl.export.MemberColumnarFormat.*;
+
+/**
+ * MemberColumnarWriter가 쓴 스트림을 읽음 (다운스트림 / 테스트용)
+ */
+public class MemberColumnarReader {
+
+    private MemberColumnarReader() {
+    }
+
+    public static List<MemberTeamDto> readAll(InputStream in) throws IOException {
+        List<MemberTeamDto> result = new ArrayList<>();
+        read(in, (memberId, userName, age, teamId, teamName) ->
+                result.add(new MemberTeamDto(memberId, userName, age, teamId, teamName)));
+        return result;
+    }
+
+    // 블록 단위로 읽어서 row마다 handler에 넘김. 읽은 row 수를 반환
+    public static long read(InputStream in, MemberRowHandler handler) throws IOException {
+        DataInputStream data = new DataInputStream(new BufferedInputStream(in));
+        checkHeader(data);
+
+        List<Long> teamIds = new ArrayList<>();
+        List<String> teamNames = new ArrayList<>();
+        long previousMemberId = 0;
+        long total = 0;
+
+        int size;
+        while ((size = (int) readVarLong(data)) > 0) {
+            int newTeams = (int) readVarLong(data);
+            for (int i = 0; i < newTeams; i++) {
+                teamIds.add(readZigZag(data));
+                teamNames.add(readString(data));
+            }
+
+            long[] memberIds = new long[size];
+            for (int i = 0; i < size; i++) {
+                previousMemberId += readZigZag(data);
+                memberIds[i] = previousMemberId;
+            }
+            int[] ages = new int[size];
+            for (int i = 0; i < size; i++) {
+                ages[i] = (int) readZigZag(data);
+            }
+            int[] teamRefs = new int[size];
+            for (int i = 0; i < size; i++) {
+                teamRefs[i] = (int) readVarLong(data);
+            }
+            int[] nameLengths = new int[size];
+            for (int i = 0; i < size; i++) {
+                nameLengths[i] = (int) readVarLong(data);
+            }
+            for (int i = 0; i < size; i++) {
+                String userName = nameLengths[i] == 0 ? null : readUtf8(data, nameLengths[i] - 1);
+                int ref = teamRefs[i];
+                handler.row(memberIds[i], userName, ages[i],
+                        ref == 0 ? null : teamIds.get(ref - 1),
+                        ref == 0 ? null : teamNames.get(ref - 1));
+            }
+            total += size;
+        }
+        return total;
+    }
+}
@@ -0,0 +1,131 @@
+package study.querydsl.export;
+
+import study.querydsl.repository.MemberRowHandler;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static study.querydsl.export.MemberColumnarFormat.*;
+
+/**
+ * 검색 결과 row를 받아서 blockSize 개씩 컬럼 단위로 묶어 바이너리로 씀 (포맷은 MemberColumnarFormat).
+ * 블록 하나만 메모리에 들고 있어서 전체 덤프도 힙 사용량이 일정함.
+ * 다 쓰고 나면 finish()로 마지막 블록과 종료 표시를 써야 함
+ */
+public class MemberColumnarWriter implements MemberRowHandler {
+
+    public static final int DEFAULT_BLOCK_SIZE = 4096;
+
+    private final DataOutputStream out;
+    private final int blockSize;
+
+    private final long[] memberIds;
+    private final int[] ages;
+    private final int[] teamRefs;
+    private final String[] userNames;
+    private int size;
+    private long previousMemberId;
+    private boolean headerWritten;
+
+    // teamId -> 사전 번호 (1부터). 이번 블록에서 처음 나온 팀은 블록 앞에 같이 씀
+    private final Map<Long, Integer> dictionary = new HashMap<>();
+    private final List<Long> newTeamIds = new ArrayList<>();
+    private final List<String> newTeamNames = new ArrayList<>();
+
+    public MemberColumnarWriter(OutputStream out) {
+        this(out, DEFAULT_BLOCK_SIZE);
+    }
+
+    public MemberColumnarWriter(OutputStream out, int blockSize) {
+        this.out = new DataOutputStream(new BufferedOutputStream(out));
+        this.blockSize = blockSize;
+        this.memberIds = new long[blockSize];
+        this.ages = new int[blockSize];
+        this.teamRefs = new int[blockSize];
+        this.userNames = new String[blockSize];
+    }
+
+    @Override
+    public void row(long memberId, String userName, int age, Long teamId, String teamName) throws IOException {
+        memberIds[size] = memberId;
+        userNames[size] = userName;
+        ages[size] = age;
+        teamRefs[size] = teamRef(teamId, teamName);
+        if (++size == blockSize) {
+            writeBlock();
+        }
+    }
+
+    public void finish() throws IOException {
+        if (size > 0) {
+            writeBlock();
+        }
+        writeHeaderIfNeeded();
+        writeVarLong(out, 0);
+        out.flush();
+    }
+
+    private int teamRef(Long teamId, String teamName) {
+        if (teamId == null) {
+            return 0;
+        }
+        Integer ref = dictionary.get(teamId);
+        if (ref == null) {
+            ref = dictionary.size() + 1;
+            dictionary.put(teamId, ref);
+            newTeamIds.add(teamId);
+            newTeamNames.add(teamName);
+        }
+        return ref;
+    }
+
+    private void writeBlock() throws IOException {
+        writeHeaderIfNeeded();
+        writeVarLong(out, size);
+
+        writeVarLong(out, newTeamIds.size());
+        for (int i = 0; i < newTeamIds.size(); i++) {
+            writeZigZag(out, newTeamIds.get(i));
+            writeString(out, newTeamNames.get(i));
+        }
+        newTeamIds.clear();
+        newTeamNames.clear();
+
+        for (int i = 0; i < size; i++) {
+            writeZigZag(out, memberIds[i] - previousMemberId);
+            previousMemberId = memberIds[i];
+        }
+        for (int i = 0; i < size; i++) {
+            writeZigZag(out, ages[i]);
+        }
+        for (int i = 0; i < size; i++) {
+            writeVarLong(out, teamRefs[i]);
+        }
+        byte[][] names = new byte[size][];
+        for (int i = 0; i < size; i++) {
+            names[i] = utf8(userNames[i]);
+            writeVarLong(out, names[i] == null ? 0 : names[i].length + 1);
+        }
+        for (int i = 0; i < size; i++) {
+            if (names[i] != null) {
+                out.write(names[i]);
+            }
+            userNames[i] = null;
+        }
+        size = 0;
+    }
+
+    private void writeHeaderIfNeeded() throws IOException {
+        if (!headerWritten) {
+            out.writeInt(MAGIC);
+            out.writeByte(VERSION);
+            headerWritten = true;
+        }
+    }
+}
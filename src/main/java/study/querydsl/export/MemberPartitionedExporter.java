@@ -0,0 +1,222 @@
+package study.querydsl.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.querydsl.core.Tuple;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import study.querydsl.config.ExportExecutor;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.dto.PartitionedExportResult;
+import study.querydsl.repository.MemberJpaRepository;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.stream.Collectors;
+
+/**
+ * member id 공간을 N개 범위로 나눠서 범위별로 동시에 export (NDJSON, 한 줄에 MemberTeamDto 하나).
+ * 파티션마다 ExportExecutor 스레드에서 MemberJpaRepository.streamSearch를 호출하므로
+ * 각자 트랜잭션, EntityManager, 커넥션을 따로 씀. 동시에 도는 파티션 수는 member-export.max-concurrency로 제한되고
+ * 검색(SearchExecutor)과는 스레드를 나눠 씀.
+ * 파티션 수에 따른 처리량은 PartitionedExportBenchmark로 확인
+ */
+@Slf4j
+@Component
+public class MemberPartitionedExporter {
+
+    private static final int MAX_PARTITIONS_PER_THREAD = 4;
+
+    private final MemberJpaRepository memberJpaRepository;
+    private final ExportExecutor exportExecutor;
+    private final ObjectWriter rowWriter;
+    private final int defaultPartitions;
+    private final int maxPartitions;
+
+    public MemberPartitionedExporter(MemberJpaRepository memberJpaRepository, ExportExecutor exportExecutor,
+                                     ObjectMapper objectMapper,
+                                     @Value("${member-export.partitions:0}") int partitions) {
+        this.memberJpaRepository = memberJpaRepository;
+        this.exportExecutor = exportExecutor;
+        this.rowWriter = objectMapper.writerFor(MemberTeamDto.class);
+        int maxConcurrency = exportExecutor.getMaxConcurrency();
+        // 동시에 도는 건 max-concurrency까지라 그 이상 잘게 나눠도 빨라지지 않고 임시 파일/대기 작업만 늘어남
+        this.maxPartitions = maxConcurrency * MAX_PARTITIONS_PER_THREAD;
+        // 0이면 동시에 돌 수 있는 만큼 (병목은 CPU 코어가 아니라 커넥션 수와 DB)
+        int requested = partitions > 0 ? partitions : maxConcurrency;
+        this.defaultPartitions = Math.min(requested, maxPartitions);
+    }
+
+    public int getDefaultPartitions() {
+        return defaultPartitions;
+    }
+
+    public int getMaxPartitions() {
+        return maxPartitions;
+    }
+
+    /**
+     * 파티션마다 directory에 members-000.ndjson, members-001.ndjson ... 파일을 따로 씀 (id 순서 = 파일 순서)
+     */
+    public PartitionedExportResult exportToDirectory(MemberSearchCondition condition, int partitions,
+                                                     Path directory) throws IOException {
+        checkPartitions(partitions);
+        long start = System.currentTimeMillis();
+        Files.createDirectories(directory);
+        List<Path> files = new ArrayList<>();
+        List<CompletableFuture<Long>> futures = start(condition, partitions, directory, files);
+
+        List<Long> partitionRows = new ArrayList<>();
+        for (CompletableFuture<Long> future : futures) {
+            partitionRows.add(join(future));
+        }
+        return result(partitionRows, files, start);
+    }
+
+    /**
+     * 파티션을 모두 동시에 돌리고, 끝난 순서와 상관없이 id 순서대로 이어 붙여서 out에 씀.
+     * 파티션 결과는 임시 파일에 두었다가 복사 후 바로 지움 (메모리에 모으지 않음)
+     */
+    public PartitionedExportResult exportMerged(MemberSearchCondition condition, int partitions,
+                                                OutputStream out) throws IOException {
+        checkPartitions(partitions);
+        long start = System.currentTimeMillis();
+        Path directory = Files.createTempDirectory("member-export");
+        List<Path> files = new ArrayList<>();
+        List<CompletableFuture<Long>> futures = start(condition, partitions, directory, files);
+        try {
+            List<Long> partitionRows = new ArrayList<>();
+            for (int i = 0; i < futures.size(); i++) {
+                partitionRows.add(join(futures.get(i)));
+                Files.copy(files.get(i), out);
+                Files.delete(files.get(i));
+            }
+            out.flush();
+            return result(partitionRows, Collections.emptyList(), start);
+        } finally {
+            // 실패했을 때 남은 파티션은 끝난 뒤에 정리
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0]))
+                    .whenComplete((ignored, e) -> deleteQuietly(files, directory));
+        }
+    }
+
+    private List<CompletableFuture<Long>> start(MemberSearchCondition condition, int partitions,
+                                                Path directory, List<Path> files) throws IOException {
+        // id 범위도 executor에서 읽음 (요청 스레드가 OSIV로 커넥션을 잡고 있으면 파티션이 쓸 커넥션이 줄어듦)
+        Tuple idRange = join(exportExecutor.supplyAsync(memberJpaRepository::findIdRange));
+        Long minId = idRange == null ? null : idRange.get(0, Long.class);
+        Long maxId = idRange == null ? null : idRange.get(1, Long.class);
+        if (minId == null) {
+            return Collections.emptyList();
+        }
+
+        List<IdRange> ranges = partition(minId, maxId, partitions);
+        log.info("member export: {} partitions over id {}..{}", ranges.size(), minId, maxId);
+        List<CompletableFuture<Long>> futures = new ArrayList<>();
+        for (int i = 0; i < ranges.size(); i++) {
+            IdRange range = ranges.get(i);
+            Path file = directory.resolve(String.format("members-%03d.ndjson", i));
+            files.add(file);
+            futures.add(exportExecutor.supplyAsync(() -> writePartition(condition, range, file)));
+        }
+        return futures;
+    }
+
+    private void checkPartitions(int partitions) {
+        if (partitions <= 0 || partitions > maxPartitions) {
+            throw new IllegalArgumentException("partitions must be between 1 and " + maxPartitions + ": " + partitions);
+        }
+    }
+
+    private long writePartition(MemberSearchCondition condition, IdRange range, Path file) {
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(file))) {
+            long[] rows = {0};
+            memberJpaRepository.streamSearch(condition, range.fromId, range.toId, memberTeamDto -> {
+                try {
+                    out.write(rowWriter.writeValueAsBytes(memberTeamDto));
+                    out.write('\n');
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+            return rows[0];
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * [minId, maxId]를 최대 partitions개의 겹치지 않는 연속 범위로 나눔 (크기 차이는 최대 1)
+     */
+    static List<IdRange> partition(long minId, long maxId, int partitions) {
+        long span = maxId - minId + 1;
+        int count = (int) Math.min(partitions, span);
+        long size = span / count;
+        long remainder = span % count;
+
+        List<IdRange> ranges = new ArrayList<>(count);
+        long from = minId;
+        for (int i = 0; i < count; i++) {
+            long to = from + size - 1 + (i < remainder ? 1 : 0);
+            ranges.add(new IdRange(from, to));
+            from = to + 1;
+        }
+        return ranges;
+    }
+
+    private static <T> T join(CompletableFuture<T> future) throws IOException {
+        try {
+            return future.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof UncheckedIOException) {
+                throw ((UncheckedIOException) e.getCause()).getCause();
+            }
+            throw e;
+        }
+    }
+
+    private static PartitionedExportResult result(List<Long> partitionRows, List<Path> files, long start) {
+        long rows = partitionRows.stream().mapToLong(Long::longValue).sum();
+        List<String> fileNames = files.stream().map(Path::toString).collect(Collectors.toList());
+        return new PartitionedExportResult(rows, partitionRows, fileNames, System.currentTimeMillis() - start);
+    }
+
+    private static void deleteQuietly(List<Path> files, Path directory) {
+        try {
+            for (Path file : files) {
+                Files.deleteIfExists(file);
+            }
+            Files.deleteIfExists(directory);
+        } catch (IOException e) {
+            log.warn("failed to delete export temp files in {}", directory, e);
+        }
+    }
+
+    static final class IdRange {
+
+        final long fromId;
+        final long toId;
+
+        IdRange(long fromId, long toId) {
+            this.fromId = fromId;
+            this.toId = toId;
+        }
+
+        @Override
+        public String toString() {
+            return "[" + fromId + ", " + toId + "]";
+        }
+    }
+}
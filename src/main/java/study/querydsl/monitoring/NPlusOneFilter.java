@@ -0,0 +1,39 @@
+package study.querydsl.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.annotation.Profile;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+
+/**
+ * strict 프로필에서 요청 하나당 같은 SQL이 n-plus-one.threshold 번을 넘게 나가면 경고 로그.
+ * 요청 스레드에서 실행된 SQL만 셈 (StreamingResponseBody 같은 비동기 처리는 제외)
+ */
+@Slf4j
+@Profile("strict")
+@Component
+@RequiredArgsConstructor
+public class NPlusOneFilter extends OncePerRequestFilter {
+
+    private final StatementCounter statementCounter;
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response,
+                                    FilterChain filterChain) throws ServletException, IOException {
+        try (StatementCounter.Scope scope = statementCounter.open()) {
+            filterChain.doFilter(request, response);
+            try {
+                scope.assertNoRepeatedStatements();
+            } catch (NPlusOneDetectedException e) {
+                log.warn("N+1 detected: {} {} - {}", request.getMethod(), request.getRequestURI(), e.getMessage());
+            }
+        }
+    }
+}
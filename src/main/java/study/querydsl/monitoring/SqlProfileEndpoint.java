@@ -0,0 +1,41 @@
+package study.querydsl.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET    /actuator/sqlprofile : 총 실행 시간 기준 top-N SQL
+ * DELETE /actuator/sqlprofile : 집계 초기화
+ */
+@Component
+@Endpoint(id = "sqlprofile")
+@RequiredArgsConstructor
+public class SqlProfileEndpoint {
+
+    private final SqlProfiler sqlProfiler;
+
+    @Value("${sql-profiler.top-n:20}")
+    private int topN;
+
+    @ReadOperation
+    public Map<String, Object> profile() {
+        Map<String, Object> profile = new LinkedHashMap<>();
+        profile.put("enabled", sqlProfiler.isEnabled());
+        profile.put("sampleRate", sqlProfiler.getSampleRate());
+        profile.put("sampledStatements", sqlProfiler.getSampledCount());
+        profile.put("top", sqlProfiler.top(topN));
+        return profile;
+    }
+
+    @DeleteOperation
+    public void reset() {
+        sqlProfiler.reset();
+    }
+}
@@ -0,0 +1,148 @@
+package study.querydsl.monitoring;
+
+import com.p6spy.engine.common.ResultSetInformation;
+import com.p6spy.engine.common.StatementInformation;
+import com.p6spy.engine.event.SimpleJdbcEventListener;
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.sql.SQLException;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.stream.Collectors;
+
+/**
+ * 샘플링 SQL 프로파일러.
+ * p6spy 로그처럼 모든 문장을 포맷팅해서 동기로 찍지 않고, sample-rate 비율만 골라서
+ * 정규화된 SQL 별로 실행 횟수 / 총 시간 / 최대 시간 / row 수를 메모리에 모아둠.
+ * 결과는 /actuator/sqlprofile
+ */
+@Component
+public class SqlProfiler extends SimpleJdbcEventListener {
+
+    private static final String OTHER = "(other)";
+
+    private final boolean enabled;
+    private final double sampleRate;
+    private final int maxStatements;
+
+    private final Map<String, SqlStats> statsBySql = new ConcurrentHashMap<>();
+    // 샘플링된 문장의 ResultSet을 다 읽을 때까지 row 수를 세기 위해 잠깐 들고 있음
+    private final Map<StatementInformation, SqlStats> reading = new ConcurrentHashMap<>();
+    private final LongAdder sampled = new LongAdder();
+
+    public SqlProfiler(@Value("${sql-profiler.enabled:true}") boolean enabled,
+                       @Value("${sql-profiler.sample-rate:0.01}") double sampleRate,
+                       @Value("${sql-profiler.max-statements:1000}") int maxStatements) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.maxStatements = maxStatements;
+    }
+
+    @Override
+    public void onAfterAnyExecute(StatementInformation statementInformation, long timeElapsedNanos, SQLException e) {
+        if (!enabled || ThreadLocalRandom.current().nextDouble() >= sampleRate) {
+            return;
+        }
+        sampled.increment();
+        SqlStats stats = statsOf(SqlNormalizer.normalize(statementInformation.getSql()));
+        stats.record(timeElapsedNanos);
+        reading.put(statementInformation, stats);
+    }
+
+    @Override
+    public void onAfterResultSetNext(ResultSetInformation resultSetInformation, long timeElapsedNanos,
+                                     boolean hasNext, SQLException e) {
+        if (!hasNext || reading.isEmpty()) {
+            return;
+        }
+        SqlStats stats = reading.get(resultSetInformation.getStatementInformation());
+        if (stats != null) {
+            stats.rows.increment();
+        }
+    }
+
+    @Override
+    public void onAfterStatementClose(StatementInformation statementInformation, SQLException e) {
+        if (!reading.isEmpty()) {
+            reading.remove(statementInformation);
+        }
+    }
+
+    public List<SqlStatsSnapshot> top(int n) {
+        return statsBySql.entrySet().stream()
+                .map(entry -> entry.getValue().snapshot(entry.getKey()))
+                .sorted(Comparator.comparingLong(SqlStatsSnapshot::getTotalNanos).reversed())
+                .limit(n)
+                .collect(Collectors.toList());
+    }
+
+    public long getSampledCount() {
+        return sampled.sum();
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public void reset() {
+        statsBySql.clear();
+        sampled.reset();
+    }
+
+    private SqlStats statsOf(String sql) {
+        SqlStats stats = statsBySql.get(sql);
+        if (stats != null) {
+            return stats;
+        }
+        // 문장 종류가 너무 많으면 (동적 SQL 등) 나머지는 한 곳에 모아서 메모리를 제한
+        String key = statsBySql.size() < maxStatements ? sql : OTHER;
+        return statsBySql.computeIfAbsent(key, k -> new SqlStats());
+    }
+
+    private static class SqlStats {
+        private final LongAdder count = new LongAdder();
+        private final LongAdder totalNanos = new LongAdder();
+        private final AtomicLong maxNanos = new AtomicLong();
+        private final LongAdder rows = new LongAdder();
+
+        private void record(long elapsedNanos) {
+            count.increment();
+            totalNanos.add(elapsedNanos);
+            maxNanos.accumulateAndGet(elapsedNanos, Math::max);
+        }
+
+        private SqlStatsSnapshot snapshot(String sql) {
+            return new SqlStatsSnapshot(sql, count.sum(), totalNanos.sum(), maxNanos.get(), rows.sum());
+        }
+    }
+
+    @Getter
+    @AllArgsConstructor
+    public static class SqlStatsSnapshot {
+        private final String sql;
+        private final long count;
+        private final long totalNanos;
+        private final long maxNanos;
+        private final long rows;
+
+        public double getTotalMillis() {
+            return totalNanos / 1_000_000.0;
+        }
+
+        public double getMaxMillis() {
+            return maxNanos / 1_000_000.0;
+        }
+    }
+}
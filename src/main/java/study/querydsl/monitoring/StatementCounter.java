@@ -0,0 +1,114 @@
+package study.querydsl.monitoring;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * N+1 감지용 문장 카운터.
+ * hibernate StatementInspector로 현재 스레드에서 열린 Scope 안에서 실행된 SQL을 모양(정규화된 SQL)별로 셈.
+ * 같은 모양이 threshold 번을 넘게 나오면 지연 로딩이 row 마다 나가고 있다는 뜻.
+ *
+ * <pre>
+ * try (StatementCounter.Scope scope = statementCounter.open()) {
+ *     ... 
+ *     scope.assertNoRepeatedStatements();
+ * }
+ * </pre>
+ */
+@Component
+public class StatementCounter implements StatementInspector, HibernatePropertiesCustomizer {
+
+    private static final ThreadLocal<Scope> CURRENT = new ThreadLocal<>();
+
+    private final int threshold;
+
+    public StatementCounter(@Value("${n-plus-one.threshold:10}") int threshold) {
+        this.threshold = threshold;
+    }
+
+    @Override
+    public void customize(Map<String, Object> hibernateProperties) {
+        hibernateProperties.put(AvailableSettings.STATEMENT_INSPECTOR, this);
+    }
+
+    @Override
+    public String inspect(String sql) {
+        Scope scope = CURRENT.get();
+        if (scope != null) {
+            scope.record(sql);
+        }
+        return sql;
+    }
+
+    public Scope open() {
+        return open(threshold);
+    }
+
+    public Scope open(int threshold) {
+        Scope scope = new Scope(threshold, CURRENT.get());
+        CURRENT.set(scope);
+        return scope;
+    }
+
+    public static class Scope implements AutoCloseable {
+
+        private final int threshold;
+        private final Scope parent;
+        private final Map<String, Integer> counts = new LinkedHashMap<>();
+        private final List<String> statements = new ArrayList<>();
+        private int statementCount;
+
+        private Scope(int threshold, Scope parent) {
+            this.threshold = threshold;
+            this.parent = parent;
+        }
+
+        private void record(String sql) {
+            statementCount++;
+            statements.add(sql);
+            counts.merge(SqlNormalizer.normalize(sql), 1, Integer::sum);
+            if (parent != null) {
+                parent.record(sql);
+            }
+        }
+
+        public int getStatementCount() {
+            return statementCount;
+        }
+
+        // 실행된 SQL 원문 (실행 순서, 파라미터는 ?)
+        public List<String> getStatements() {
+            return statements;
+        }
+
+        // threshold 번을 넘게 실행된 SQL 모양과 횟수
+        public Map<String, Integer> getRepeatedStatements() {
+            return counts.entrySet().stream()
+                    .filter(entry -> entry.getValue() > threshold)
+                    .collect(Collectors.toMap(Map.Entry::getKey, Map.Entry::getValue,
+                            (a, b) -> a, LinkedHashMap::new));
+        }
+
+        public void assertNoRepeatedStatements() {
+            Map<String, Integer> repeated = getRepeatedStatements();
+            if (!repeated.isEmpty()) {
+                throw new NPlusOneDetectedException("same statement executed more than " + threshold
+                        + " times (total " + statementCount + " statements): " + repeated);
+            }
+        }
+
+        @Override
+        public void close() {
+            CURRENT.set(parent);
+        }
+    }
+}
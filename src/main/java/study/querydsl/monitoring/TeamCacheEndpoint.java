@@ -0,0 +1,50 @@
+package study.querydsl.monitoring;
+
+import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.springframework.boot.actuate.endpoint.annotation.DeleteOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManagerFactory;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * GET    /actuator/teamcache : 2차 캐시 / 쿼리 캐시 통계 (team-cache 프로필에서 generate_statistics가 켜져야 값이 쌓임)
+ * DELETE /actuator/teamcache : Team 2차 캐시와 쿼리 캐시를 비움 (DB를 직접 수정했을 때)
+ */
+@Component
+@Endpoint(id = "teamcache")
+@RequiredArgsConstructor
+public class TeamCacheEndpoint {
+
+    private final EntityManagerFactory emf;
+
+    @ReadOperation
+    public Map<String, Object> statistics() {
+        Statistics statistics = sessionFactory().getStatistics();
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("statisticsEnabled", statistics.isStatisticsEnabled());
+        result.put("secondLevelCacheHit", statistics.getSecondLevelCacheHitCount());
+        result.put("secondLevelCacheMiss", statistics.getSecondLevelCacheMissCount());
+        result.put("secondLevelCachePut", statistics.getSecondLevelCachePutCount());
+        result.put("queryCacheHit", statistics.getQueryCacheHitCount());
+        result.put("queryCacheMiss", statistics.getQueryCacheMissCount());
+        result.put("queryCachePut", statistics.getQueryCachePutCount());
+        return result;
+    }
+
+    @DeleteOperation
+    public void evict() {
+        sessionFactory().getCache().evictEntityData(Team.class);
+        sessionFactory().getCache().evictQueryRegions();
+    }
+
+    private SessionFactory sessionFactory() {
+        return emf.unwrap(SessionFactory.class);
+    }
+}
@@ -0,0 +1,176 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.support.CountQueryCache;
+import study.querydsl.repository.support.RepositoryMetrics;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * MemberTeamDto에 필요한 5개 컬럼만 jdbc로 읽어서 바로 DTO로 매핑.
+ * 엔티티/영속성 컨텍스트를 거치지 않아서 스냅샷, 1차 캐시, 프록시 생성이 전혀 없음.
+ * 팀 이름 조건은 MemberRepositoryImpl처럼 team id로 바꿔서 member.team_id로 필터링하고 team은 조인하지 않음
+ * -> idx_member_team_age (team_id, age, user_name) 인덱스만 읽고 끝낼 수 있음 (member_id는 row key).
+ * 조회만 하므로 readOnly 트랜잭션 (라우팅이 켜져 있으면 replica로 감)
+ */
+@Repository
+@Transactional(readOnly = true)
+public class MemberJdbcRepository {
+
+    private static final String METRIC_NAME = "MemberJdbcRepository";
+
+    // 팀 이름 조건이 없을 때: 팀 이름을 내려줘야 하니 team을 조인
+    private static final String SELECT = "select m.member_id, m.user_name, m.age, m.team_id, t.name as team_name"
+            + " from member m left join team t on t.id = m.team_id";
+
+    // 팀 이름 조건이 있을 때: 팀 이름은 조건 값 그대로라 조인하지 않음
+    private static final String SELECT_BY_TEAM_IDS = "select m.member_id, m.user_name, m.age, m.team_id"
+            + " from member m";
+
+    // export는 커서로 이만큼씩 끊어서 읽음
+    private static final int EXPORT_FETCH_SIZE = 500;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate exportTemplate;
+    private final CountQueryCache countQueryCache;
+    private final RepositoryMetrics metrics;
+    private final TeamRepository teamRepository;
+
+    public MemberJdbcRepository(NamedParameterJdbcTemplate jdbcTemplate, CountQueryCache countQueryCache,
+                                RepositoryMetrics metrics, TeamRepository teamRepository) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.countQueryCache = countQueryCache;
+        this.metrics = metrics;
+        this.teamRepository = teamRepository;
+
+        JdbcTemplate cursorTemplate = new JdbcTemplate(jdbcTemplate.getJdbcTemplate().getDataSource());
+        cursorTemplate.setFetchSize(EXPORT_FETCH_SIZE);
+        this.exportTemplate = new NamedParameterJdbcTemplate(cursorTemplate);
+    }
+
+    public List<MemberTeamDto> search(MemberSearchCondition condition) {
+        List<Long> teamIds = resolveTeamIds(condition.getTeamName());
+        if (isNoTeamMatched(teamIds)) {
+            return new ArrayList<>();
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = select(teamIds) + where(condition, teamIds, params);
+        return metrics.list(METRIC_NAME, "search",
+                () -> jdbcTemplate.query(sql, params, rowMapper(condition, teamIds)));
+    }
+
+    public Page<MemberTeamDto> searchPage(MemberSearchCondition condition, Pageable pageable) {
+        List<Long> teamIds = resolveTeamIds(condition.getTeamName());
+        if (isNoTeamMatched(teamIds)) {
+            return Page.empty(pageable);
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("limit", pageable.getPageSize())
+                .addValue("offset", pageable.getOffset());
+        String where = where(condition, teamIds, params);
+        String contentSql = select(teamIds) + where + " order by m.member_id limit :limit offset :offset";
+
+        // count에는 team 컬럼이 필요 없으니 조인하지 않음
+        String countSql = "select count(*) from member m" + where;
+
+        return metrics.page(METRIC_NAME, "searchPage", pageable,
+                () -> jdbcTemplate.query(contentSql, params, rowMapper(condition, teamIds)),
+                () -> countQueryCache.getTotal(MemberJdbcRepository.class.getName(), condition.normalize(),
+                        () -> jdbcTemplate.queryForObject(countSql, params, Long.class)));
+    }
+
+    /**
+     * search()와 같은 조건의 결과를 member id 순서로 한 row씩 handler에 넘김.
+     * DTO도 List도 만들지 않아서 결과 크기와 상관없이 힙 사용량이 일정함. 넘긴 row 수를 반환
+     */
+    public long forEachRow(MemberSearchCondition condition, MemberRowHandler handler) {
+        List<Long> teamIds = resolveTeamIds(condition.getTeamName());
+        if (isNoTeamMatched(teamIds)) {
+            return 0;
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource();
+        String sql = select(teamIds) + where(condition, teamIds, params) + " order by m.member_id";
+        String teamName = teamIds != null ? condition.getTeamName() : null;
+        return metrics.record(METRIC_NAME, "forEachRow", () -> {
+            long[] rows = {0};
+            exportTemplate.query(sql, params, (RowCallbackHandler) rs -> {
+                long teamId = rs.getLong(4);
+                boolean noTeam = rs.wasNull();
+                try {
+                    handler.row(rs.getLong(1), rs.getString(2), rs.getInt(3),
+                            noTeam ? null : teamId, teamIds != null ? teamName : rs.getString(5));
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+                rows[0]++;
+            });
+            return rows[0];
+        }, Long::intValue);
+    }
+
+    private static String select(List<Long> teamIds) {
+        return teamIds != null ? SELECT_BY_TEAM_IDS : SELECT;
+    }
+
+    // 팀 이름 조건이 있으면 조회한 컬럼에 팀 이름이 없으니 조건 값으로 채움
+    private static RowMapper<MemberTeamDto> rowMapper(MemberSearchCondition condition, List<Long> teamIds) {
+        String teamName = condition.getTeamName();
+        return (rs, rowNum) -> new MemberTeamDto(
+                rs.getLong("member_id"),
+                rs.getString("user_name"),
+                rs.getInt("age"),
+                rs.getObject("team_id", Long.class),
+                teamIds != null ? teamName : rs.getString("team_name"));
+    }
+
+    // 팀 이름 조건이 없으면 null, 있으면 해당 이름의 team id 목록 (쿼리 캐시 대상)
+    private List<Long> resolveTeamIds(String teamName) {
+        return hasText(teamName) ? teamRepository.findIdsByName(teamName) : null;
+    }
+
+    // 조건에 맞는 팀이 하나도 없으면 member를 조회할 필요도 없음
+    private static boolean isNoTeamMatched(List<Long> teamIds) {
+        return teamIds != null && teamIds.isEmpty();
+    }
+
+    // MemberRepositoryImpl의 usernameEq, teamIdIn, ageGoe, ageLoe와 같은 규칙
+    private static String where(MemberSearchCondition condition, List<Long> teamIds, MapSqlParameterSource params) {
+        StringBuilder where = new StringBuilder();
+        String prefix = " where ";
+        if (hasText(condition.getUserName())) {
+            where.append(prefix).append("m.user_name = :userName");
+            params.addValue("userName", condition.getUserName());
+            prefix = " and ";
+        }
+        if (teamIds != null) {
+            where.append(prefix).append("m.team_id in (:teamIds)");
+            params.addValue("teamIds", teamIds);
+            prefix = " and ";
+        }
+        if (condition.getAgeGoe() != null) {
+            where.append(prefix).append("m.age >= :ageGoe");
+            params.addValue("ageGoe", condition.getAgeGoe());
+            prefix = " and ";
+        }
+        if (condition.getAgeLoe() != null) {
+            where.append(prefix).append("m.age <= :ageLoe");
+            params.addValue("ageLoe", condition.getAgeLoe());
+        }
+        return where.toString();
+    }
+}
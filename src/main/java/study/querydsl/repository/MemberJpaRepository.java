@@ -1,29 +1,52 @@
 package study.querydsl.repository;
 
+import com.mysema.commons.lang.CloseableIterator;
 import com.querydsl.core.BooleanBuilder;
+import com.querydsl.core.Tuple;
 import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.StringUtils;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.BatchInserter;
+import study.querydsl.repository.support.RepositoryMetrics;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.Optional;
+import java.util.function.Consumer;
 
 import static org.springframework.util.StringUtils.*;
 import static study.querydsl.entity.QMember.*;
 import static study.querydsl.entity.QTeam.*;
 
+/**
+ * 조회는 readOnly 트랜잭션 (hibernate FlushMode.MANUAL + 세션 기본 read-only -> 스냅샷/더티체킹 없음).
+ * 엔티티를 반환하는 쿼리는 바깥 트랜잭션이 read-write여도 스냅샷을 만들지 않도록 read-only 힌트를 줌
+ */
 @Repository
+@Transactional(readOnly = true)
 public class MemberJpaRepository {
 
+    private static final String METRIC_NAME = "MemberJpaRepository";
+
+    // 커서에서 한 번에 가져올 row 수. 이만큼 넘길 때마다 영속성 컨텍스트도 비움
+    private static final int STREAM_FETCH_SIZE = 500;
+
     private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final MemberSearchQueryCache searchQueryCache;
+    private final RepositoryMetrics metrics;
+    private final TeamRepository teamRepository;
+    private final BatchInserter batchInserter;
 
     // Application에서 bean으로 등록한거. 이거는 롬복 @RequiredArguments로 대체 가능
     // 단점: JPAQueryFactory를 외부에서 주입받아야되므로 test 코드 짤 때 귀찮아짐
@@ -33,16 +56,29 @@ public class MemberJpaRepository {
 //    }
 
     // 빈 등록 안 할때
-    public MemberJpaRepository(EntityManager em) {
+    public MemberJpaRepository(EntityManager em, MemberSearchQueryCache searchQueryCache,
+                               RepositoryMetrics metrics, TeamRepository teamRepository,
+                               BatchInserter batchInserter) {
         this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.searchQueryCache = searchQueryCache;
+        this.metrics = metrics;
+        this.teamRepository = teamRepository;
+        this.batchInserter = batchInserter;
     }
 
+    @Transactional
     public void save(Member member) {
         em.persist(member);
 
     }
 
+    // 대량 저장: batch_size 단위로 JDBC batch insert (BatchInserter)
+    @Transactional
+    public int saveAll(Iterable<Member> members) {
+        return batchInserter.persistAll(members);
+    }
+
     public Optional<Member> findById(Long id) {
         Member findMember = em.find(Member.class, id);
         return Optional.ofNullable(findMember);
@@ -50,18 +86,21 @@ public class MemberJpaRepository {
 
     public List<Member> findAll() {
         return em.createQuery("select m from Member m", Member.class)
+                .setHint(QueryHints.READ_ONLY, true)
                 .getResultList();
     }
 
     public List<Member> findAll_Querydsl() {
         return queryFactory
                 .selectFrom(member)
+                .setHint(QueryHints.READ_ONLY, true)
                 .fetch();
     }
 
     public List<Member> findByUsername(String userName) {
         return em.createQuery("select m from Member m where m.userName = :userName", Member.class)
                 .setParameter("userName", userName)
+                .setHint(QueryHints.READ_ONLY, true)
                 .getResultList();
     }
 
@@ -69,6 +108,7 @@ public class MemberJpaRepository {
         return queryFactory
                 .selectFrom(member)
                 .where(member.userName.eq(userName))
+                .setHint(QueryHints.READ_ONLY, true)
                 .fetch();
     }
 
@@ -90,7 +130,7 @@ public class MemberJpaRepository {
             builder.and(member.age.loe(condition.getAgeLoe()));
         }
 
-        return queryFactory
+        return metrics.list(METRIC_NAME, "searchByBuilder", () -> queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.userName,
@@ -101,11 +141,45 @@ public class MemberJpaRepository {
                 .from(member)
                 .leftJoin(member.team, team)
                 .where(builder)
-                .fetch();
+                .fetch());
     }
 
+    // 조건 shape별로 캐시된 JPQL에 파라미터만 바인딩 (MemberSearchQueryCache)
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
+        return metrics.list(METRIC_NAME, "search",
+                () -> searchQueryCache.search(em, condition, resolveTeamIds(condition.getTeamName())));
+    }
+
+    /**
+     * search()와 같은 조건이지만 List로 모으지 않고 forward-only 커서로 한 건씩 consumer에 넘김.
+     * 결과 크기와 상관없이 메모리가 일정하게 유지됨. 커서가 열려 있는 동안 커넥션이 필요해서 트랜잭션 안에서 실행
+     */
+    public void streamSearch(MemberSearchCondition condition, Consumer<MemberTeamDto> consumer) {
+        streamSearch(condition, null, null, consumer);
+    }
+
+    /**
+     * streamSearch()를 member id 범위 [fromId, toId] 안으로 제한하고 id 순서로 넘김.
+     * 범위별로 다른 스레드에서 호출하면 각자 트랜잭션/커넥션을 따로 씀 (MemberPartitionedExporter)
+     */
+    public void streamSearch(MemberSearchCondition condition, Long fromId, Long toId,
+                             Consumer<MemberTeamDto> consumer) {
+        List<Long> teamIds = resolveTeamIds(condition.getTeamName());
+        if (teamIds != null && teamIds.isEmpty()) {
+            return;
+        }
+
+        // 팀 이름 조건이 있으면 team 조인 없이 member.team_id로 필터링하고 팀 이름은 조건 값으로 채움
+        JPAQuery<MemberTeamDto> query = teamIds != null
+                ? queryFactory
+                .select(new QMemberTeamDto(
+                        member.id.as("memberId"),
+                        member.userName,
+                        member.age,
+                        member.team.id.as("teamId")
+                ))
+                .from(member)
+                : queryFactory
                 .select(new QMemberTeamDto(
                         member.id.as("memberId"),
                         member.userName,
@@ -114,25 +188,58 @@ public class MemberJpaRepository {
                         team.name.as("teamName")
                 ))
                 .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+                .leftJoin(member.team, team);
+
+        query.where(usernameEq(condition.getUserName()),
+                teamIdIn(teamIds),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe()),
+                idGoe(fromId),
+                idLoe(toId));
+        if (fromId != null || toId != null) {
+            query.orderBy(member.id.asc());
+        }
+
+        try (CloseableIterator<MemberTeamDto> iterator = query
+                .setHint(QueryHints.FETCH_SIZE, STREAM_FETCH_SIZE)
+                .iterate()) {
+            int count = 0;
+            while (iterator.hasNext()) {
+                MemberTeamDto dto = iterator.next();
+                if (teamIds != null) {
+                    dto.setTeamName(condition.getTeamName());
+                }
+                consumer.accept(dto);
+                if (++count % STREAM_FETCH_SIZE == 0) {
+                    em.clear();
+                }
+            }
+        }
     }
 
     // select projection이 달라져도 메서드 재사용 가능
+    // 엔티티 조회라 team 컬럼이 필요 없음 -> 팀 이름은 team id로 바꿔서 조인 없이 필터링
     public List<Member> searchMember(MemberSearchCondition condition) {
-        return queryFactory
+        List<Long> teamIds = resolveTeamIds(condition.getTeamName());
+        if (teamIds != null && teamIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return metrics.list(METRIC_NAME, "searchMember", () -> queryFactory
                 .selectFrom(member)
-                .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
+                        teamIdIn(teamIds),
                         ageBetween(condition.getAgeGoe(), condition.getAgeLoe())
                 )
-                .fetch();
+                .setHint(QueryHints.READ_ONLY, true)
+                .fetch());
+    }
+
+    // export 파티션 나누기용 member id 최소/최대 (데이터가 없으면 둘 다 null)
+    public Tuple findIdRange() {
+        return queryFactory
+                .select(member.id.min(), member.id.max())
+                .from(member)
+                .fetchOne();
     }
 
     private BooleanExpression ageBetween(int ageLoe, int ageGoe) {
@@ -143,8 +250,13 @@ public class MemberJpaRepository {
         return hasText(userName) ? member.userName.eq(userName) : null;
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+    private BooleanExpression teamIdIn(List<Long> teamIds) {
+        return teamIds != null ? member.team.id.in(teamIds) : null;
+    }
+
+    // 팀 이름 조건이 없으면 null, 있으면 해당 이름의 team id 목록 (쿼리 캐시 대상)
+    private List<Long> resolveTeamIds(String teamName) {
+        return hasText(teamName) ? teamRepository.findIdsByName(teamName) : null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
@@ -154,4 +266,12 @@ public class MemberJpaRepository {
     private BooleanExpression ageLoe(Integer ageLoe) {
         return ageLoe != null ? member.age.loe(ageLoe) : null;
     }
+
+    private BooleanExpression idGoe(Long fromId) {
+        return fromId != null ? member.id.goe(fromId) : null;
+    }
+
+    private BooleanExpression idLoe(Long toId) {
+        return toId != null ? member.id.loe(toId) : null;
+    }
 }
@@ -2,15 +2,28 @@ package study.querydsl.repository;
 
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import study.querydsl.dto.BulkResult;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
 
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
 
 public interface MemberRepositoryCustom {
 
     List<MemberTeamDto> search(MemberSearchCondition condition);
     Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable);
     Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable);
+    Slice<MemberTeamDto> searchSliceByKeyset(MemberSearchCondition condition, Long lastMemberId, int size);
+    CompletableFuture<Page<MemberTeamDto>> searchPageComplexAsync(MemberSearchCondition condition, Pageable pageable);
+
+    // member id 범위를 chunkSize씩 나눠서 청크마다 커밋
+    BulkResult bulkAddAge(MemberSearchCondition condition, int delta, int chunkSize);
+    BulkResult bulkDelete(MemberSearchCondition condition, int chunkSize);
+
+    // saveAll과 달리 batch_size 단위로 flush/clear 하면서 JDBC batch insert
+    int persistAll(Iterable<Member> members);
 
 }
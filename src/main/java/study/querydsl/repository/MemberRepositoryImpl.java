@@ -1,120 +1,332 @@
 package study.querydsl.repository;
 
-import com.querydsl.core.QueryResults;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Predicate;
 import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.config.SearchExecutor;
+import study.querydsl.dto.BulkResult;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.dto.QMemberTeamDto;
 import study.querydsl.entity.Member;
+import study.querydsl.repository.support.BatchInserter;
+import study.querydsl.repository.support.CountQueryCache;
+import study.querydsl.repository.support.RepositoryMetrics;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.function.Supplier;
 
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.CountQueryBuilder.countFrom;
 
+@Transactional(readOnly = true)    // DTO 조회만 하므로 flush/더티체킹이 필요 없음
 public class MemberRepositoryImpl implements MemberRepositoryCustom {
 
+    private static final String METRIC_NAME = "MemberRepository";
+
+    private final EntityManager em;
     private final JPAQueryFactory queryFactory;
+    private final CountQueryCache countQueryCache;
+    private final MemberSearchQueryCache searchQueryCache;
+    private final RepositoryMetrics metrics;
+    private final TeamRepository teamRepository;
+    private final SearchExecutor searchExecutor;
+    private final BatchInserter batchInserter;
+    private final TransactionTemplate readOnlyTx;
+    private final TransactionTemplate chunkTx;
 
-    public MemberRepositoryImpl(EntityManager em) {
+    public MemberRepositoryImpl(EntityManager em, CountQueryCache countQueryCache,
+                                MemberSearchQueryCache searchQueryCache, RepositoryMetrics metrics,
+                                TeamRepository teamRepository, SearchExecutor searchExecutor,
+                                BatchInserter batchInserter, PlatformTransactionManager transactionManager) {
+        this.em = em;
         this.queryFactory = new JPAQueryFactory(em);
+        this.countQueryCache = countQueryCache;
+        this.searchQueryCache = searchQueryCache;
+        this.metrics = metrics;
+        this.teamRepository = teamRepository;
+        this.searchExecutor = searchExecutor;
+        this.batchInserter = batchInserter;
+
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.chunkTx = new TransactionTemplate(transactionManager);
+        this.chunkTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
     }
 
     @Override
     public List<MemberTeamDto> search(MemberSearchCondition condition) {
-        return queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.userName,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .fetch();
+        return metrics.list(METRIC_NAME, "search",
+                () -> searchQueryCache.search(em, condition, resolveTeamIds(condition.getTeamName())));
     }
 
     @Override
     public Page<MemberTeamDto> searchPageSimple(MemberSearchCondition condition, Pageable pageable) {
-        QueryResults<MemberTeamDto> results = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.userName,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
-                .where(usernameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
-                        ageGoe(condition.getAgeGoe()),
-                        ageLoe(condition.getAgeLoe())
-                )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetchResults();
-        List<MemberTeamDto> content = results.getResults();
-        long total = results.getTotal();
-        return new PageImpl<>(content, pageable, total);
+        // fetchResults()는 deprecated + 항상 count 쿼리가 나가므로 complex와 같은 방식으로 처리
+        List<Long> teamIds = resolveTeamIds(condition.getTeamName());
+        return metrics.page(METRIC_NAME, "searchPageSimple", pageable,
+                () -> fetchContent(contentQuery(condition, teamIds)
+                        .orderBy(member.id.asc())
+                        .offset(pageable.getOffset())
+                        .limit(pageable.getPageSize()), condition, teamIds),
+                () -> cachedCount(condition, teamIds));
     }
 
     @Override
     public Page<MemberTeamDto> searchPageComplex(MemberSearchCondition condition, Pageable pageable) {
-        List<MemberTeamDto> content = queryFactory
-                .select(new QMemberTeamDto(
-                        member.id.as("memberId"),
-                        member.userName,
-                        member.age,
-                        team.id.as("teamId"),
-                        team.name.as("teamName")
-                ))
-                .from(member)
-                .leftJoin(member.team, team)
+        // fetch()를 하면 content만 가지고 오는 것.
+        // 페이지 시작이면서 컨텐츠 사이즈가 페이지 사이즈보다 작거나 마지막 페이지일때 count 호출 안 함
+        // 정렬이 없으면 offset 페이지 사이에 row가 겹치거나 빠질 수 있으므로 member id 순서 (keyset과 같은 순서)
+        // 카운트 쿼리가 필요하면 날림 (같은 조건이면 캐시된 total 사용)
+        List<Long> teamIds = resolveTeamIds(condition.getTeamName());
+        return metrics.page(METRIC_NAME, "searchPageComplex", pageable,
+                () -> fetchContent(contentQuery(condition, teamIds)
+                        .orderBy(member.id.asc())
+                        .offset(pageable.getOffset())
+                        .limit(pageable.getPageSize()), condition, teamIds),
+                () -> cachedCount(condition, teamIds));
+    }
+
+    private long cachedCount(MemberSearchCondition condition, List<Long> teamIds) {
+        if (isNoTeamMatched(teamIds)) {
+            return 0;
+        }
+        JPAQuery<Long> countQuery = countQuery(condition, teamIds);
+        return countQueryCache.getTotal(Member.class.getName(), condition.normalize(),
+                countQuery::fetchOne);
+    }
+
+    /**
+     * 팀 이름 조건이 있으면 team id로 바꿔서 member.team_id로 필터링하고 team은 조인하지 않음.
+     * 팀 이름은 조건 값 그대로이므로 조회 후 채워 넣음 (fetchContent)
+     */
+    private JPAQuery<MemberTeamDto> contentQuery(MemberSearchCondition condition, List<Long> teamIds) {
+        JPAQuery<MemberTeamDto> query;
+        if (teamIds != null) {
+            query = queryFactory
+                    .select(new QMemberTeamDto(
+                            member.id.as("memberId"),
+                            member.userName,
+                            member.age,
+                            member.team.id.as("teamId")
+                    ))
+                    .from(member);
+        } else {
+            query = queryFactory
+                    .select(new QMemberTeamDto(
+                            member.id.as("memberId"),
+                            member.userName,
+                            member.age,
+                            team.id.as("teamId"),
+                            team.name.as("teamName")
+                    ))
+                    .from(member)
+                    .leftJoin(member.team, team);
+        }
+        return query
                 .where(usernameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
+                        teamIdIn(teamIds),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
-                )
-                .offset(pageable.getOffset())
-                .limit(pageable.getPageSize())
-                .fetch();   // fetch()를 하면 content만 가지고 오는 것.
-
-        JPAQuery<Long> countQuery = queryFactory
-                .select(member.count())
-                .from(member)
-                .leftJoin(member.team, team)
+                );
+    }
+
+    private List<MemberTeamDto> fetchContent(JPAQuery<MemberTeamDto> query, MemberSearchCondition condition,
+                                             List<Long> teamIds) {
+        if (isNoTeamMatched(teamIds)) {
+            return new ArrayList<>();
+        }
+        List<MemberTeamDto> content = query.fetch();
+        if (teamIds != null) {
+            content.forEach(dto -> dto.setTeamName(condition.getTeamName()));
+        }
+        return content;
+    }
+
+    // count에는 team 컬럼이 필요 없으니 조인하지 않음
+    private JPAQuery<Long> countQuery(MemberSearchCondition condition, List<Long> teamIds) {
+        return countFrom(queryFactory, member)
                 .where(usernameEq(condition.getUserName()),
-                        teamNameEq(condition.getTeamName()),
+                        teamIdIn(teamIds),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
-                );
-        // 페이지 시작이면서 컨텐츠 사이즈가 페이지 사이즈보다 작거나 마지막 페이지일때 호출 안 함
-        // 카운트 쿼리가 필요하면 날림
-        return PageableExecutionUtils.getPage(content, pageable,
-                countQuery::fetchOne);
+                )
+                .build();
+    }
+
+    /**
+     * offset 대신 member.id > lastMemberId 로 다음 페이지를 찾음.
+     * offset은 앞의 row를 전부 읽고 버려야 해서 뒤 페이지로 갈수록 느려지지만 이건 pk 인덱스로 바로 찾아감
+     */
+    @Override
+    public Slice<MemberTeamDto> searchSliceByKeyset(MemberSearchCondition condition, Long lastMemberId, int size) {
+        if (size <= 0) {
+            throw new IllegalArgumentException("size must be positive: " + size);
+        }
+        List<Long> teamIds = resolveTeamIds(condition.getTeamName());
+        List<MemberTeamDto> content = metrics.list(METRIC_NAME, "searchSliceByKeyset",
+                () -> fetchContent(contentQuery(condition, teamIds)
+                        .where(memberIdGt(lastMemberId))
+                        .orderBy(member.id.asc())
+                        .limit(size + 1),    // 하나 더 가져와서 다음 페이지가 있는지 확인 (count 쿼리 없음)
+                        condition, teamIds));
+
+        boolean hasNext = content.size() > size;
+        return new SliceImpl<>(hasNext ? content.subList(0, size) : content, PageRequest.of(0, size), hasNext);
+    }
+
+    /**
+     * searchPageComplex와 같은 결과를 content 쿼리와 count 쿼리를 동시에 실행해서 만듦 (지연시간 = max(content, count)).
+     * 각 쿼리는 SearchExecutor 스레드에서 각자의 readOnly 트랜잭션으로 실행하고 팀 이름 -> id도 각자 조회 (쿼리 캐시 대상).
+     * count가 필요 없는 페이지면 count는 취소됨 (RepositoryMetrics.pageAsync).
+     * 호출한 스레드가 트랜잭션(커넥션)을 잡고 기다리지 않도록 NOT_SUPPORTED
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public CompletableFuture<Page<MemberTeamDto>> searchPageComplexAsync(MemberSearchCondition condition,
+                                                                        Pageable pageable) {
+        CompletableFuture<List<MemberTeamDto>> content = readOnlyAsync(() -> {
+            List<Long> teamIds = resolveTeamIds(condition.getTeamName());
+            return fetchContent(contentQuery(condition, teamIds)
+                    .orderBy(member.id.asc())
+                    .offset(pageable.getOffset())
+                    .limit(pageable.getPageSize()), condition, teamIds);
+        });
+        CompletableFuture<Long> total = readOnlyAsync(
+                () -> cachedCount(condition, resolveTeamIds(condition.getTeamName())));
+        return metrics.pageAsync(METRIC_NAME, "searchPageComplexAsync", pageable, content, total);
+    }
+
+    private <T> CompletableFuture<T> readOnlyAsync(Supplier<T> query) {
+        return searchExecutor.supplyAsync(() -> readOnlyTx.execute(status -> query.get()));
+    }
+
+    /**
+     * 조건에 맞는 member의 나이를 delta만큼 바꿈.
+     * 한 문장으로 전체를 update 하면 대상 row 전체에 락이 오래 잡히므로 member id 범위 chunkSize씩 나눠서 청크마다 커밋.
+     * 벌크 연산은 영속성 컨텍스트를 거치지 않으니 청크마다 em.clear(), count 캐시도 비움 (엔티티 리스너가 안 불림)
+     */
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkResult bulkAddAge(MemberSearchCondition condition, int delta, int chunkSize) {
+        return inChunks(condition, chunkSize, where -> queryFactory
+                .update(member)
+                .set(member.age, member.age.add(delta))
+                .where(where)
+                .execute());
+    }
+
+    @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public BulkResult bulkDelete(MemberSearchCondition condition, int chunkSize) {
+        return inChunks(condition, chunkSize, where -> queryFactory
+                .delete(member)
+                .where(where)
+                .execute());
+    }
+
+    @Override
+    @Transactional
+    public int persistAll(Iterable<Member> members) {
+        return batchInserter.persistAll(members);
+    }
+
+    /**
+     * 조건에 맞는 member id를 id 순서로 chunkSize개씩 찾아서(마지막 id 다음부터 seek) 그 범위만 청크 하나로 처리.
+     * 전체 id 범위를 일정 간격으로 자르면 조건에 맞는 row가 없는 구간도 트랜잭션을 하나씩 쓰게 되므로
+     * 청크마다 실제 대상 row가 있음. 나이를 바꿔도 이미 지난 id는 다시 보지 않음
+     */
+    private BulkResult inChunks(MemberSearchCondition condition, int chunkSize,
+                                Function<Predicate[], Long> chunk) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("chunkSize must be positive: " + chunkSize);
+        }
+        long start = System.currentTimeMillis();
+        // 대상 id는 primary에서 읽음 (readOnly 트랜잭션은 replica로 갈 수 있고, 아직 복제 안 된 id는 빠짐)
+        List<Long> teamIds = chunkTx.execute(status -> resolveTeamIds(condition.getTeamName()));
+        if (isNoTeamMatched(teamIds)) {
+            return new BulkResult(0, 0, System.currentTimeMillis() - start);
+        }
+
+        long affectedRows = 0;
+        int chunks = 0;
+        Long lastId = null;
+        while (true) {
+            Long afterId = lastId;
+            List<Long> ids = chunkTx.execute(status -> queryFactory
+                    .select(member.id)
+                    .from(member)
+                    .where(memberIdGt(afterId), bulkWhere(condition, teamIds))
+                    .orderBy(member.id.asc())
+                    .limit(chunkSize)
+                    .fetch());
+            if (ids == null || ids.isEmpty()) {
+                break;
+            }
+            BooleanExpression range = member.id.between(ids.get(0), ids.get(ids.size() - 1));
+            Long affected = chunkTx.execute(status -> {
+                long rows = chunk.apply(new Predicate[]{range, bulkWhere(condition, teamIds)});
+                em.clear();
+                return rows;
+            });
+            countQueryCache.evictAll();
+            affectedRows += affected == null ? 0 : affected;
+            chunks++;
+            lastId = ids.get(ids.size() - 1);
+            if (ids.size() < chunkSize) {
+                break;
+            }
+        }
+        return new BulkResult(affectedRows, chunks, System.currentTimeMillis() - start);
+    }
+
+    // 벌크 연산 대상 조건 (search와 같은 규칙, 벌크 JPQL은 조인이 안 되니 팀은 id로)
+    private Predicate bulkWhere(MemberSearchCondition condition, List<Long> teamIds) {
+        return ExpressionUtils.allOf(
+                usernameEq(condition.getUserName()),
+                teamIdIn(teamIds),
+                ageGoe(condition.getAgeGoe()),
+                ageLoe(condition.getAgeLoe()));
+    }
+
+    // 팀 이름 조건이 없으면 null, 있으면 해당 이름의 team id 목록 (쿼리 캐시 대상)
+    private List<Long> resolveTeamIds(String teamName) {
+        return hasText(teamName) ? teamRepository.findIdsByName(teamName) : null;
+    }
+
+    // 조건에 맞는 팀이 하나도 없으면 member를 조회할 필요도 없음
+    private boolean isNoTeamMatched(List<Long> teamIds) {
+        return teamIds != null && teamIds.isEmpty();
+    }
+
+    private BooleanExpression memberIdGt(Long lastMemberId) {
+        return lastMemberId != null ? member.id.gt(lastMemberId) : null;
     }
 
     private BooleanExpression usernameEq(String userName) {
         return hasText(userName) ? member.userName.eq(userName) : null;
     }
 
-    private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? team.name.eq(teamName) : null;
+    private BooleanExpression teamIdIn(List<Long> teamIds) {
+        return teamIds != null ? member.team.id.in(teamIds) : null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
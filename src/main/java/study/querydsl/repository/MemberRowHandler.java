@@ -0,0 +1,13 @@
+package study.querydsl.repository;
+
+import java.io.IOException;
+
+/**
+ * 검색 결과 row를 MemberTeamDto를 만들지 않고 컬럼 값 그대로 받음 (export 용).
+ * team이 없는 member는 teamId, teamName이 null
+ */
+@FunctionalInterface
+public interface MemberRowHandler {
+
+    void row(long memberId, String userName, int age, Long teamId, String teamName) throws IOException;
+}
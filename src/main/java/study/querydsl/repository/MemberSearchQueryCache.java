@@ -0,0 +1,161 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.springframework.util.StringUtils.hasText;
+
+/**
+ * search() 용 JPQL 캐시.
+ * 검색 조건은 값만 다르고 "어떤 필드가 채워졌는지"(shape)는 16가지 뿐이라서
+ * shape별로 JPQL을 한 번만 만들어두고 이후에는 파라미터만 바인딩함.
+ * 매번 BooleanExpression을 만들고 JPQL로 직렬화하는 비용이 없어지고
+ * hibernate 쿼리 플랜도 최대 16개만 생김
+ */
+@Component
+public class MemberSearchQueryCache implements MeterBinder {
+
+    private static final int USER_NAME = 1;
+    private static final int TEAM_NAME = 1 << 1;
+    private static final int AGE_GOE = 1 << 2;
+    private static final int AGE_LOE = 1 << 3;
+
+    private final Map<Integer, String> jpqlByShape = new ConcurrentHashMap<>();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    /**
+     * teamIds는 팀 이름 조건을 미리 team id로 바꿔둔 것 (팀 이름 조건이 없으면 null).
+     * 맞는 팀이 없으면 쿼리 없이 빈 결과, 있으면 조회 후 팀 이름을 조건 값으로 채움
+     */
+    public List<MemberTeamDto> search(EntityManager em, MemberSearchCondition condition, List<Long> teamIds) {
+        if (teamIds != null && teamIds.isEmpty()) {
+            return new ArrayList<>();
+        }
+        List<MemberTeamDto> result = createQuery(em, condition, teamIds).getResultList();
+        if (teamIds != null) {
+            result.forEach(dto -> dto.setTeamName(condition.getTeamName()));
+        }
+        return result;
+    }
+
+    public TypedQuery<MemberTeamDto> createQuery(EntityManager em, MemberSearchCondition condition,
+                                                 List<Long> teamIds) {
+        int shape = shapeOf(condition);
+        TypedQuery<MemberTeamDto> query = em.createQuery(jpql(shape), MemberTeamDto.class);
+
+        if ((shape & USER_NAME) != 0) {
+            query.setParameter("userName", condition.getUserName());
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            query.setParameter("teamIds", teamIds);
+        }
+        if ((shape & AGE_GOE) != 0) {
+            query.setParameter("ageGoe", condition.getAgeGoe());
+        }
+        if ((shape & AGE_LOE) != 0) {
+            query.setParameter("ageLoe", condition.getAgeLoe());
+        }
+        return query;
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    public double getHitRatio() {
+        long hit = hitCount.get();
+        long total = hit + missCount.get();
+        return total == 0 ? 0 : (double) hit / total;
+    }
+
+    public int size() {
+        return jpqlByShape.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("repository.search.query.cache", this, MemberSearchQueryCache::getHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("repository.search.query.cache", this, MemberSearchQueryCache::getMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        Gauge.builder("repository.search.query.cache.size", this, MemberSearchQueryCache::size)
+                .register(registry);
+    }
+
+    private String jpql(int shape) {
+        String jpql = jpqlByShape.get(shape);
+        if (jpql != null) {
+            hitCount.incrementAndGet();
+            return jpql;
+        }
+        missCount.incrementAndGet();
+        return jpqlByShape.computeIfAbsent(shape, MemberSearchQueryCache::buildJpql);
+    }
+
+    // MemberRepositoryImpl의 usernameEq, teamIdIn, ageGoe, ageLoe와 같은 규칙
+    private static int shapeOf(MemberSearchCondition condition) {
+        int shape = 0;
+        if (hasText(condition.getUserName())) {
+            shape |= USER_NAME;
+        }
+        if (hasText(condition.getTeamName())) {
+            shape |= TEAM_NAME;
+        }
+        if (condition.getAgeGoe() != null) {
+            shape |= AGE_GOE;
+        }
+        if (condition.getAgeLoe() != null) {
+            shape |= AGE_LOE;
+        }
+        return shape;
+    }
+
+    // 팀 이름 조건이 있으면 team 조인 없이 member.team_id로만 필터링 (팀 이름은 search()에서 채움)
+    private static String buildJpql(int shape) {
+        StringBuilder jpql = new StringBuilder()
+                .append("select new ").append(MemberTeamDto.class.getName());
+        if ((shape & TEAM_NAME) != 0) {
+            jpql.append("(m.id, m.userName, m.age, m.team.id) from Member m");
+        } else {
+            jpql.append("(m.id, m.userName, m.age, t.id, t.name) from Member m left join m.team t");
+        }
+
+        String prefix = " where ";
+        if ((shape & USER_NAME) != 0) {
+            jpql.append(prefix).append("m.userName = :userName");
+            prefix = " and ";
+        }
+        if ((shape & TEAM_NAME) != 0) {
+            jpql.append(prefix).append("m.team.id in :teamIds");
+            prefix = " and ";
+        }
+        if ((shape & AGE_GOE) != 0) {
+            jpql.append(prefix).append("m.age >= :ageGoe");
+            prefix = " and ";
+        }
+        if ((shape & AGE_LOE) != 0) {
+            jpql.append(prefix).append("m.age <= :ageLoe");
+        }
+        return jpql.toString();
+    }
+}
@@ -4,7 +4,6 @@ import com.querydsl.core.types.dsl.BooleanExpression;
 import com.querydsl.jpa.impl.JPAQuery;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.entity.Member;
@@ -15,6 +14,7 @@ import java.util.List;
 import static org.springframework.util.StringUtils.hasText;
 import static study.querydsl.entity.QMember.member;
 import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.CountQueryBuilder.countFrom;
 
 @Repository
 public class MemberTestRepository extends Querydsl4RepositorySupport {
@@ -40,10 +40,16 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe()));
-        List<Member> content = getQuerydsl().applyPagination(pageable, query)
-                .fetch();
-        return PageableExecutionUtils.getPage(content, pageable,
-                query::fetchCount);
+        JPAQuery<Long> countQuery = countFrom(getQueryFactory(), member)
+                .leftJoin(member.team, team)
+                .where(usernameEq(condition.getUserName()),
+                        teamNameEq(condition.getTeamName()),
+                        ageGoe(condition.getAgeGoe()),
+                        ageLoe(condition.getAgeLoe()))
+                .build();
+        return getRepositoryMetrics().page(getClass().getSimpleName(), "searchPageByApplyPage", pageable,
+                () -> getQuerydsl().applyPagination(pageable, query).fetch(),
+                countQuery::fetchOne);
     }
 
     public Page<Member> applyPagination(MemberSearchCondition condition, Pageable pageable) {
@@ -59,33 +65,32 @@ public class MemberTestRepository extends Querydsl4RepositorySupport {
     }
 
     public Page<Member> applyPagination2(MemberSearchCondition condition, Pageable pageable) {
-        return applyPagination(pageable, contentQuery -> contentQuery
+        return applyPagination(pageable, "applyPagination2", condition.normalize(), contentQuery -> contentQuery
                 .selectFrom(member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUserName()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
-                ), countQuery -> countQuery
-                .select(member.id)
-                .from(member)
+                ), countQuery -> countFrom(countQuery, member)
                 .leftJoin(member.team, team)
                 .where(usernameEq(condition.getUserName()),
                         teamNameEq(condition.getTeamName()),
                         ageGoe(condition.getAgeGoe()),
                         ageLoe(condition.getAgeLoe())
                 )
+                .build()
         );
     }
 
 
 
     private BooleanExpression usernameEq(String username) {
-        return hasText(username) ? null : member.userName.eq(username);
+        return hasText(username) ? member.userName.eq(username) : null;
     }
 
     private BooleanExpression teamNameEq(String teamName) {
-        return hasText(teamName) ? null : team.name.eq(teamName);
+        return hasText(teamName) ? team.name.eq(teamName) : null;
     }
 
     private BooleanExpression ageGoe(Integer ageGoe) {
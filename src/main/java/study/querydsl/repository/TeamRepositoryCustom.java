@@ -0,0 +1,18 @@
+package study.querydsl.repository;
+
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.entity.Team;
+
+import java.util.List;
+
+public interface TeamRepositoryCustom {
+
+    List<Long> findIdsByName(String teamName);
+
+    Page<TeamMembersDto> searchTeamsWithMembers(String teamName, Pageable pageable);
+
+    int persistAll(Iterable<Team> teams);
+
+}
@@ -0,0 +1,90 @@
+package study.querydsl.repository;
+
+import com.querydsl.core.types.dsl.BooleanExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.annotations.QueryHints;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberDto;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.BatchInserter;
+import study.querydsl.repository.support.RepositoryMetrics;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.springframework.util.StringUtils.hasText;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.CountQueryBuilder.countFrom;
+
+public class TeamRepositoryImpl implements TeamRepositoryCustom {
+
+    private static final String METRIC_NAME = "TeamRepository";
+
+    private final JPAQueryFactory queryFactory;
+    private final RepositoryMetrics metrics;
+    private final BatchInserter batchInserter;
+
+    public TeamRepositoryImpl(EntityManager em, RepositoryMetrics metrics, BatchInserter batchInserter) {
+        this.queryFactory = new JPAQueryFactory(em);
+        this.metrics = metrics;
+        this.batchInserter = batchInserter;
+    }
+
+    /**
+     * 팀 이름 -> id. 팀은 거의 안 바뀌니 쿼리 캐시에 올려둠 (team-cache 프로필에서만 캐시됨).
+     * team 테이블이 바뀌면 hibernate가 해당 쿼리 캐시를 자동으로 무효화함
+     */
+    @Override
+    public List<Long> findIdsByName(String teamName) {
+        return metrics.list(METRIC_NAME, "findIdsByName", () -> queryFactory
+                .select(team.id)
+                .from(team)
+                .where(team.name.eq(teamName))
+                .setHint(QueryHints.CACHEABLE, true)
+                .fetch());
+    }
+
+    /**
+     * 컬렉션 fetch join은 페이징이 안 되니 팀만 페이징하고 members는 지연 로딩.
+     * Team.members의 @BatchSize 덕분에 팀 수만큼이 아니라 in (...) 쿼리 몇 번으로 로딩됨
+     */
+    @Override
+    @Transactional(readOnly = true)
+    public Page<TeamMembersDto> searchTeamsWithMembers(String teamName, Pageable pageable) {
+        JPAQuery<Long> countQuery = countFrom(queryFactory, team)
+                .where(teamNameEq(teamName))
+                .build();
+        return metrics.page(METRIC_NAME, "searchTeamsWithMembers", pageable,
+                () -> toDto(queryFactory
+                        .selectFrom(team)
+                        .where(teamNameEq(teamName))
+                        .orderBy(team.id.asc())
+                        .offset(pageable.getOffset())
+                        .limit(pageable.getPageSize())
+                        .fetch()),
+                countQuery::fetchOne);
+    }
+
+    // JpaRepository.saveAll과 달리 batch_size 단위로 flush/clear (BatchInserter)
+    @Override
+    public int persistAll(Iterable<Team> teams) {
+        return batchInserter.persistAll(teams);
+    }
+
+    private List<TeamMembersDto> toDto(List<Team> teams) {
+        return teams.stream()
+                .map(t -> new TeamMembersDto(t.getId(), t.getName(), t.getMembers().stream()
+                        .map(m -> new MemberDto(m.getUserName(), m.getAge()))
+                        .collect(Collectors.toList())))
+                .collect(Collectors.toList());
+    }
+
+    private BooleanExpression teamNameEq(String teamName) {
+        return hasText(teamName) ? team.name.eq(teamName) : null;
+    }
+}
@@ -0,0 +1,42 @@
+package study.querydsl.repository.support;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+
+/**
+ * 대량 저장용.
+ * 엔티티마다 save 하면 row 하나마다 트랜잭션/insert가 따로 나가지만, 여기서는 한 트랜잭션 안에서 persist만 하고
+ * hibernate.jdbc.batch_size 만큼 모일 때마다 flush -> JDBC batch insert, clear -> 영속성 컨텍스트 메모리 비움.
+ * id는 pooled 시퀀스(allocationSize)라 insert마다 시퀀스를 조회하지 않고, order_inserts로 같은 테이블 insert끼리 묶임.
+ * 주의: clear 때문에 같은 트랜잭션에서 이미 조회한 엔티티도 준영속 상태가 됨
+ */
+@Component
+public class BatchInserter {
+
+    private final EntityManager em;
+    private final int batchSize;
+
+    public BatchInserter(EntityManager em,
+                         @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:1000}") int batchSize) {
+        this.em = em;
+        this.batchSize = batchSize;
+    }
+
+    @Transactional
+    public <T> int persistAll(Iterable<T> entities) {
+        int count = 0;
+        for (T entity : entities) {
+            em.persist(entity);
+            if (++count % batchSize == 0) {
+                em.flush();
+                em.clear();
+            }
+        }
+        em.flush();
+        em.clear();
+        return count;
+    }
+}
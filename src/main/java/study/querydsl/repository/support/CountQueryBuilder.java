@@ -0,0 +1,119 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.EntityPath;
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.ExpressionUtils;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Predicate;
+import com.querydsl.core.types.SubQueryExpression;
+import com.querydsl.core.types.TemplateExpression;
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * count 쿼리 전용 빌더.
+ * left join은 where 조건이 실제로 그 alias를 참조할 때만 붙임.
+ * left join은 row 수를 줄이지 않으니 (to-one 기준) 조건이 없으면 조인 없이 count 해도 결과가 같음
+ *
+ * <pre>
+ * CountQueryBuilder.countFrom(queryFactory, member)
+ *         .leftJoin(member.team, team)
+ *         .where(usernameEq(...), teamNameEq(...))
+ *         .build();
+ * </pre>
+ */
+public class CountQueryBuilder {
+
+    private final JPAQueryFactory queryFactory;
+    private final EntityPath<?> from;
+    private final List<LeftJoin<?>> joins = new ArrayList<>();
+    private final List<Predicate> where = new ArrayList<>();
+
+    private CountQueryBuilder(JPAQueryFactory queryFactory, EntityPath<?> from) {
+        this.queryFactory = queryFactory;
+        this.from = from;
+    }
+
+    public static CountQueryBuilder countFrom(JPAQueryFactory queryFactory, EntityPath<?> from) {
+        return new CountQueryBuilder(queryFactory, from);
+    }
+
+    // to-one 연관관계만 넘길 것. to-many는 조인 여부에 따라 row 수가 달라짐
+    public <P> CountQueryBuilder leftJoin(EntityPath<P> target, Path<P> alias) {
+        joins.add(new LeftJoin<>(target, alias));
+        return this;
+    }
+
+    // querydsl where()처럼 null 조건은 무시
+    public CountQueryBuilder where(Predicate... predicates) {
+        for (Predicate predicate : predicates) {
+            if (predicate != null) {
+                where.add(predicate);
+            }
+        }
+        return this;
+    }
+
+    public JPAQuery<Long> build() {
+        JPAQuery<Long> query = queryFactory
+                .select(ExpressionUtils.count(from))
+                .from(from);
+        for (LeftJoin<?> join : joins) {
+            if (isReferenced(join.alias)) {
+                join.applyTo(query);
+            }
+        }
+        return query.where(where.toArray(new Predicate[0]));
+    }
+
+    private boolean isReferenced(Path<?> alias) {
+        for (Predicate predicate : where) {
+            if (references(predicate, alias)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static boolean references(Expression<?> expression, Path<?> alias) {
+        if (expression instanceof Path) {
+            return ((Path<?>) expression).getRoot().equals(alias);
+        }
+        if (expression instanceof Operation) {
+            for (Expression<?> arg : ((Operation<?>) expression).getArgs()) {
+                if (references(arg, alias)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        if (expression instanceof TemplateExpression) {
+            for (Object arg : ((TemplateExpression<?>) expression).getArgs()) {
+                if (arg instanceof Expression && references((Expression<?>) arg, alias)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        // 서브쿼리는 바깥 alias를 참조하는지 따라가기 번거로우니 안전하게 조인을 유지
+        return expression instanceof SubQueryExpression;
+    }
+
+    private static class LeftJoin<P> {
+        private final EntityPath<P> target;
+        private final Path<P> alias;
+
+        private LeftJoin(EntityPath<P> target, Path<P> alias) {
+            this.target = target;
+            this.alias = alias;
+        }
+
+        private void applyTo(JPAQuery<?> query) {
+            query.leftJoin(target, alias);
+        }
+    }
+}
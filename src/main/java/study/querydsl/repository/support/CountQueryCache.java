@@ -0,0 +1,130 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * 페이징 count 결과 캐시.
+ * 같은 검색 조건으로 페이지만 넘기는 동안에는 total이 거의 안 바뀌니까 count 쿼리를 매번 날리지 않음.
+ * 엔티티가 저장/수정/삭제된 트랜잭션이 커밋되면 전체를 비움 (CountQueryCacheEvictListener)
+ * 다른 트랜잭션에서 커밋되기 전 값이 들어갈 수 있어서 total은 최대 ttl 만큼 늦을 수 있음
+ */
+@Component
+public class CountQueryCache implements MeterBinder {
+
+    private final long ttlMillis;
+    private final int maxSize;
+
+    private final Map<List<Object>, CachedTotal> totals = new ConcurrentHashMap<>();
+    private final AtomicLong generation = new AtomicLong();
+    private final AtomicLong hitCount = new AtomicLong();
+    private final AtomicLong missCount = new AtomicLong();
+
+    public CountQueryCache(@Value("${count-cache.ttl-millis:10000}") long ttlMillis,
+                           @Value("${count-cache.max-size:1000}") int maxSize) {
+        this.ttlMillis = ttlMillis;
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @param name       어떤 count인지 구분 (보통 엔티티 이름)
+     * @param key        정규화된 검색 조건. equals/hashCode가 있어야 함
+     * @param countQuery 캐시에 없을 때만 실행
+     */
+    public long getTotal(String name, Object key, LongSupplier countQuery) {
+        if (ttlMillis <= 0) {
+            missCount.incrementAndGet();
+            return countQuery.getAsLong();
+        }
+
+        List<Object> cacheKey = List.of(name, key);
+        long now = System.currentTimeMillis();
+        CachedTotal cached = totals.get(cacheKey);
+        if (cached != null && cached.expiresAt > now) {
+            hitCount.incrementAndGet();
+            return cached.total;
+        }
+
+        missCount.incrementAndGet();
+        long startGeneration = generation.get();
+        long total = countQuery.getAsLong();
+
+        // count 도중에 evict 됐으면 이미 늦은 값일 수 있으니 넣지 않음
+        if (startGeneration == generation.get()) {
+            makeRoom(now);
+            totals.put(cacheKey, new CachedTotal(total, now + ttlMillis));
+        }
+        return total;
+    }
+
+    public void evictAll() {
+        generation.incrementAndGet();
+        totals.clear();
+    }
+
+    public long getHitCount() {
+        return hitCount.get();
+    }
+
+    public long getMissCount() {
+        return missCount.get();
+    }
+
+    // evictAll() 호출 횟수
+    public long getEvictCount() {
+        return generation.get();
+    }
+
+    public int size() {
+        return totals.size();
+    }
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        FunctionCounter.builder("repository.count.cache", this, CountQueryCache::getHitCount)
+                .tag("result", "hit")
+                .register(registry);
+        FunctionCounter.builder("repository.count.cache", this, CountQueryCache::getMissCount)
+                .tag("result", "miss")
+                .register(registry);
+        FunctionCounter.builder("repository.count.cache.evictions", this, CountQueryCache::getEvictCount)
+                .register(registry);
+        Gauge.builder("repository.count.cache.size", this, CountQueryCache::size)
+                .register(registry);
+    }
+
+    private void makeRoom(long now) {
+        if (totals.size() < maxSize) {
+            return;
+        }
+        totals.values().removeIf(cached -> cached.expiresAt <= now);
+
+        // 만료된게 없으면 아무거나 하나씩 빼서 크기를 맞춤
+        Iterator<List<Object>> iterator = totals.keySet().iterator();
+        while (totals.size() >= maxSize && iterator.hasNext()) {
+            iterator.next();
+            iterator.remove();
+        }
+    }
+
+    private static class CachedTotal {
+        private final long total;
+        private final long expiresAt;
+
+        private CachedTotal(long total, long expiresAt) {
+            this.total = total;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
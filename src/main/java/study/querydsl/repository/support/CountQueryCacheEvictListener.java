@@ -0,0 +1,55 @@
+package study.querydsl.repository.support;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import javax.persistence.PostPersist;
+import javax.persistence.PostRemove;
+import javax.persistence.PostUpdate;
+
+/**
+ * 엔티티가 바뀌면 캐시된 count를 비움.
+ * Hibernate가 스프링 빈 컨테이너로 리스너를 만들기 때문에 주입 받을 수 있음.
+ * row 마다 비우지 않고 트랜잭션당 한 번, 트랜잭션이 끝난 뒤에 비움 (커밋 전에 비우면 다른 트랜잭션이 옛 total을 다시 채울 수 있음).
+ * 롤백돼도 비움 -> 그 트랜잭션 안에서 센 count에는 롤백된 row가 들어 있을 수 있음. 트랜잭션 밖이면 바로 비움.
+ * 벌크 update/delete는 리스너를 타지 않으니 그 쪽에서 직접 CountQueryCache.evictAll()을 호출해야 함
+ */
+@Component
+@RequiredArgsConstructor
+public class CountQueryCacheEvictListener {
+
+    private final CountQueryCache countQueryCache;
+
+    @PostPersist
+    @PostUpdate
+    @PostRemove
+    public void evict(Object entity) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            countQueryCache.evictAll();
+            return;
+        }
+        // 이미 등록했으면 또 등록하지 않음 (REQUIRES_NEW로 중단된 바깥 트랜잭션의 등록은 여기서 안 보임)
+        for (TransactionSynchronization synchronization : TransactionSynchronizationManager.getSynchronizations()) {
+            if (synchronization instanceof EvictAfterCompletion) {
+                return;
+            }
+        }
+        TransactionSynchronizationManager.registerSynchronization(new EvictAfterCompletion(countQueryCache));
+    }
+
+    private static class EvictAfterCompletion implements TransactionSynchronization {
+
+        private final CountQueryCache countQueryCache;
+
+        private EvictAfterCompletion(CountQueryCache countQueryCache) {
+            this.countQueryCache = countQueryCache;
+        }
+
+        @Override
+        public void afterCompletion(int status) {
+            countQueryCache.evictAll();
+        }
+    }
+}
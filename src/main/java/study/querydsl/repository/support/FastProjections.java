@@ -0,0 +1,259 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.core.types.Expression;
+import com.querydsl.core.types.FactoryExpression;
+import com.querydsl.core.types.FactoryExpressionBase;
+import com.querydsl.core.types.Operation;
+import com.querydsl.core.types.Ops;
+import com.querydsl.core.types.Path;
+import com.querydsl.core.types.Visitor;
+import org.springframework.util.ClassUtils;
+import org.springframework.util.StringUtils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.BiConsumer;
+import java.util.function.Supplier;
+
+/**
+ * Projections.bean / Projections.constructor 대신 쓰는 프로젝션.
+ * Projections.bean, fields는 row마다 reflection(Method.invoke, Field.set)으로 값을 넣지만
+ * 여기서는 처음 만들 때 setter는 LambdaMetafactory로 BiConsumer를, 생성자는 MethodHandle을 만들어두고
+ * row마다 그걸 바로 호출함. 만든 invoker는 (DTO 클래스, 프로퍼티)별로 캐시해서 같은 프로젝션을 다시 만들어도 재사용.
+ * FactoryExpression이라 select(...)에 그대로 넣으면 됨
+ */
+public final class FastProjections {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private static final Map<Class<?>, Supplier<Object>> NO_ARG_CONSTRUCTORS = new ConcurrentHashMap<>();
+    private static final Map<List<Object>, BiConsumer<Object, Object>> SETTERS = new ConcurrentHashMap<>();
+    private static final Map<List<Object>, ConstructorInvoker> CONSTRUCTORS = new ConcurrentHashMap<>();
+
+    private FastProjections() {
+    }
+
+    /**
+     * Projections.bean과 같은 규칙: 기본 생성자로 만들고 path 이름(또는 as로 준 alias)의 setter로 값을 넣음
+     */
+    public static <T> FactoryExpression<T> bean(Class<? extends T> type, Expression<?>... exprs) {
+        return new BeanProjection<>(type, exprs);
+    }
+
+    /**
+     * Projections.constructor와 같은 규칙: 인자 타입이 맞는 생성자를 호출.
+     * primitive 파라미터에 null이 오면 (left join으로 비어 있는 값 등) 기본값(0, false)으로 바꿔서 넘김
+     */
+    public static <T> FactoryExpression<T> constructor(Class<? extends T> type, Expression<?>... exprs) {
+        return new ConstructorProjection<>(type, exprs);
+    }
+
+    private static class BeanProjection<T> extends FactoryExpressionBase<T> {
+
+        private final List<Expression<?>> args;
+        private final Supplier<Object> constructor;
+        private final BiConsumer<Object, Object>[] setters;
+        private final boolean[] primitive;
+
+        @SuppressWarnings("unchecked")
+        BeanProjection(Class<? extends T> type, Expression<?>... exprs) {
+            super(type);
+            this.args = List.of(exprs);
+            this.constructor = NO_ARG_CONSTRUCTORS.computeIfAbsent(type, FastProjections::noArgConstructor);
+            this.setters = new BiConsumer[exprs.length];
+            this.primitive = new boolean[exprs.length];
+            for (int i = 0; i < exprs.length; i++) {
+                Method setter = setterOf(type, propertyOf(exprs[i]));
+                setters[i] = SETTERS.computeIfAbsent(List.of(type, setter.getName(), setter.getParameterTypes()[0]),
+                        key -> setterInvoker(type, setter));
+                primitive[i] = setter.getParameterTypes()[0].isPrimitive();
+            }
+        }
+
+        @Override
+        public List<Expression<?>> getArgs() {
+            return args;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T newInstance(Object... values) {
+            Object bean = constructor.get();
+            for (int i = 0; i < values.length; i++) {
+                // primitive 프로퍼티에 null은 넣을 수 없으니 기본값 그대로 둠
+                if (values[i] != null || !primitive[i]) {
+                    setters[i].accept(bean, values[i]);
+                }
+            }
+            return (T) bean;
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> v, C context) {
+            return v.visit(this, context);
+        }
+    }
+
+    private static class ConstructorProjection<T> extends FactoryExpressionBase<T> {
+
+        private final List<Expression<?>> args;
+        private final ConstructorInvoker constructor;
+
+        ConstructorProjection(Class<? extends T> type, Expression<?>... exprs) {
+            super(type);
+            this.args = List.of(exprs);
+            Class<?>[] argTypes = Arrays.stream(exprs).map(Expression::getType).toArray(Class<?>[]::new);
+            this.constructor = CONSTRUCTORS.computeIfAbsent(List.of(type, List.of(argTypes)),
+                    key -> constructorInvoker(type, argTypes));
+        }
+
+        @Override
+        public List<Expression<?>> getArgs() {
+            return args;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public T newInstance(Object... values) {
+            try {
+                return (T) (Object) constructor.handle.invokeExact(constructor.withPrimitiveDefaults(values));
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        }
+
+        @Override
+        public <R, C> R accept(Visitor<R, C> v, C context) {
+            return v.visit(this, context);
+        }
+    }
+
+    // path면 프로퍼티 이름, as(...)로 감싼 경우 alias 이름
+    private static String propertyOf(Expression<?> expr) {
+        if (expr instanceof Path) {
+            return ((Path<?>) expr).getMetadata().getName();
+        }
+        if (expr instanceof Operation && ((Operation<?>) expr).getOperator() == Ops.ALIAS) {
+            Expression<?> alias = ((Operation<?>) expr).getArg(1);
+            return alias instanceof Path ? ((Path<?>) alias).getMetadata().getName() : alias.toString();
+        }
+        throw new IllegalArgumentException("Unsupported expression " + expr + ", use as(...) to name it");
+    }
+
+    private static Method setterOf(Class<?> type, String property) {
+        String name = "set" + StringUtils.capitalize(property);
+        return Arrays.stream(type.getMethods())
+                .filter(method -> method.getName().equals(name) && method.getParameterCount() == 1)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("No setter " + name + " in " + type.getName()));
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Supplier<Object> noArgConstructor(Class<?> type) {
+        try {
+            MethodHandle handle = LOOKUP.findConstructor(type, MethodType.methodType(void.class));
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "get",
+                    MethodType.methodType(Supplier.class),
+                    MethodType.methodType(Object.class),
+                    handle,
+                    MethodType.methodType(type));
+            return (Supplier<Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("No public default constructor in " + type.getName(), e);
+        }
+    }
+
+    // (dto, value) -> dto.setXxx(value). primitive 파라미터는 박싱 타입을 받아서 언박싱
+    @SuppressWarnings("unchecked")
+    private static BiConsumer<Object, Object> setterInvoker(Class<?> type, Method setter) {
+        try {
+            MethodHandle handle = LOOKUP.unreflect(setter);
+            Class<?> valueType = ClassUtils.resolvePrimitiveIfNecessary(setter.getParameterTypes()[0]);
+            CallSite site = LambdaMetafactory.metafactory(LOOKUP, "accept",
+                    MethodType.methodType(BiConsumer.class),
+                    MethodType.methodType(void.class, Object.class, Object.class),
+                    handle,
+                    MethodType.methodType(void.class, type, valueType));
+            return (BiConsumer<Object, Object>) site.getTarget().invokeExact();
+        } catch (Throwable e) {
+            throw new IllegalArgumentException("Cannot access " + setter, e);
+        }
+    }
+
+    // Object[] 하나를 받아서 생성자 인자로 펼쳐 넘기는 MethodHandle
+    private static ConstructorInvoker constructorInvoker(Class<?> type, Class<?>[] argTypes) {
+        Constructor<?> constructor = Arrays.stream(type.getConstructors())
+                .filter(candidate -> matches(candidate.getParameterTypes(), argTypes))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException(
+                        "No constructor " + type.getName() + Arrays.toString(argTypes)));
+        try {
+            MethodHandle handle = LOOKUP.unreflectConstructor(constructor)
+                    .asSpreader(Object[].class, argTypes.length)
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return new ConstructorInvoker(handle, primitiveDefaults(constructor.getParameterTypes()));
+        } catch (IllegalAccessException e) {
+            throw new IllegalArgumentException("Cannot access " + constructor, e);
+        }
+    }
+
+    // primitive 파라미터 자리에는 기본값, 나머지는 null
+    private static Object[] primitiveDefaults(Class<?>[] parameterTypes) {
+        Object[] defaults = new Object[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (parameterTypes[i].isPrimitive()) {
+                defaults[i] = Array.get(Array.newInstance(parameterTypes[i], 1), 0);
+            }
+        }
+        return defaults;
+    }
+
+    private static class ConstructorInvoker {
+
+        private final MethodHandle handle;
+        private final Object[] primitiveDefaults;
+
+        ConstructorInvoker(MethodHandle handle, Object[] primitiveDefaults) {
+            this.handle = handle;
+            this.primitiveDefaults = primitiveDefaults;
+        }
+
+        // null이 없으면 values를 그대로 씀 (row마다 배열을 복사하지 않음)
+        Object[] withPrimitiveDefaults(Object[] values) {
+            Object[] result = values;
+            for (int i = 0; i < values.length; i++) {
+                if (values[i] == null && primitiveDefaults[i] != null) {
+                    if (result == values) {
+                        result = values.clone();
+                    }
+                    result[i] = primitiveDefaults[i];
+                }
+            }
+            return result;
+        }
+    }
+
+    private static boolean matches(Class<?>[] parameterTypes, Class<?>[] argTypes) {
+        if (parameterTypes.length != argTypes.length) {
+            return false;
+        }
+        for (int i = 0; i < parameterTypes.length; i++) {
+            if (!ClassUtils.isAssignable(parameterTypes[i], argTypes[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
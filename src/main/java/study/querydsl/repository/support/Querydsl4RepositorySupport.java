@@ -4,6 +4,7 @@ import com.querydsl.core.types.Expression;
 import com.querydsl.core.types.dsl.PathBuilder;
 import com.querydsl.jpa.impl.JPAQuery;
 import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.hibernate.annotations.QueryHints;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -12,12 +13,11 @@ import
         org.springframework.data.jpa.repository.support.JpaEntityInformationSupport;
 import org.springframework.data.jpa.repository.support.Querydsl;
 import org.springframework.data.querydsl.SimpleEntityPathResolver;
-import org.springframework.data.support.PageableExecutionUtils;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.util.Assert;
 import javax.annotation.PostConstruct;
 import javax.persistence.EntityManager;
-import java.util.List;
 import java.util.function.Function;
 /**
  * Querydsl 4.x 버전에 맞춘 Querydsl 지원 라이브러리
@@ -27,11 +27,14 @@ import java.util.function.Function;
  * org.springframework.data.jpa.repository.support.QuerydslRepositorySupport
  */
 @Repository
+@Transactional(readOnly = true)
 public abstract class Querydsl4RepositorySupport {
     private final Class domainClass;
     private Querydsl querydsl;
     private EntityManager entityManager;
     private JPAQueryFactory queryFactory;
+    private CountQueryCache countQueryCache;
+    private RepositoryMetrics repositoryMetrics;
     public Querydsl4RepositorySupport(Class<?> domainClass) {
         Assert.notNull(domainClass, "Domain class must not be null!");
         this.domainClass = domainClass;
@@ -48,11 +51,21 @@ public abstract class Querydsl4RepositorySupport {
                 PathBuilder<>(path.getType(), path.getMetadata()));
         this.queryFactory = new JPAQueryFactory(entityManager);
     }
+    @Autowired
+    public void setCountQueryCache(CountQueryCache countQueryCache) {
+        this.countQueryCache = countQueryCache;
+    }
+    @Autowired
+    public void setRepositoryMetrics(RepositoryMetrics repositoryMetrics) {
+        this.repositoryMetrics = repositoryMetrics;
+    }
     @PostConstruct
     public void validate() {
         Assert.notNull(entityManager, "EntityManager must not be null!");
         Assert.notNull(querydsl, "Querydsl must not be null!");
         Assert.notNull(queryFactory, "QueryFactory must not be null!");
+        Assert.notNull(countQueryCache, "CountQueryCache must not be null!");
+        Assert.notNull(repositoryMetrics, "RepositoryMetrics must not be null!");
     }
     protected JPAQueryFactory getQueryFactory() {
         return queryFactory;
@@ -63,28 +76,52 @@ public abstract class Querydsl4RepositorySupport {
     protected EntityManager getEntityManager() {
         return entityManager;
     }
+    protected RepositoryMetrics getRepositoryMetrics() {
+        return repositoryMetrics;
+    }
     protected <T> JPAQuery<T> select(Expression<T> expr) {
         return getQueryFactory().select(expr);
     }
+    // 조회한 엔티티는 스냅샷을 만들지 않음 (바깥 트랜잭션이 read-write여도 더티체킹 대상에서 빠짐)
     protected <T> JPAQuery<T> selectFrom(EntityPath<T> from) {
-        return getQueryFactory().selectFrom(from);
+        return getQueryFactory().selectFrom(from)
+                .setHint(QueryHints.READ_ONLY, true);
     }
     protected <T> Page<T> applyPagination(Pageable pageable,
                                           Function<JPAQueryFactory, JPAQuery> contentQuery) {
-        JPAQuery jpaQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable,
-                jpaQuery).fetch();
-        return PageableExecutionUtils.getPage(content, pageable,
+        JPAQuery jpaQuery = readOnly(contentQuery.apply(getQueryFactory()));
+        return repositoryMetrics.page(getClass().getSimpleName(), "applyPagination", pageable,
+                () -> getQuerydsl().applyPagination(pageable, jpaQuery).fetch(),
                 jpaQuery::fetchCount);
     }
     protected <T> Page<T> applyPagination(Pageable pageable,
                                           Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory,
             JPAQuery> countQuery) {
-        JPAQuery jpaContentQuery = contentQuery.apply(getQueryFactory());
-        List<T> content = getQuerydsl().applyPagination(pageable,
-                jpaContentQuery).fetch();
-        JPAQuery countResult = countQuery.apply(getQueryFactory());
-        return PageableExecutionUtils.getPage(content, pageable,
-                countResult::fetchCount);
+        JPAQuery jpaContentQuery = readOnly(contentQuery.apply(getQueryFactory()));
+        return repositoryMetrics.page(getClass().getSimpleName(), "applyPagination", pageable,
+                () -> getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch(),
+                () -> countQuery.apply(getQueryFactory()).fetchCount());
+    }
+    /**
+     * countCacheKey(정규화된 검색 조건)가 같으면 count 결과를 재사용
+     * 같은 레포지토리 안에서도 count 쿼리가 다를 수 있어서 레포지토리 클래스 + countQueryName 단위로 구분함.
+     * countQuery는 count를 직접 select 하는 쿼리 (CountQueryBuilder) 라서 fetchCount가 아니라 fetchOne으로 실행
+     * (fetchCount는 projection을 한 번 더 count로 감싸서 count(count(...))가 됨)
+     */
+    protected <T> Page<T> applyPagination(Pageable pageable, String countQueryName, Object countCacheKey,
+                                          Function<JPAQueryFactory, JPAQuery> contentQuery, Function<JPAQueryFactory,
+            JPAQuery<Long>> countQuery) {
+        JPAQuery jpaContentQuery = readOnly(contentQuery.apply(getQueryFactory()));
+        return repositoryMetrics.page(getClass().getSimpleName(), countQueryName, pageable,
+                () -> getQuerydsl().applyPagination(pageable, jpaContentQuery).fetch(),
+                () -> countQueryCache.getTotal(getClass().getName() + "#" + countQueryName, countCacheKey,
+                        () -> fetchTotal(countQuery.apply(getQueryFactory()))));
+    }
+    private static long fetchTotal(JPAQuery<Long> countQuery) {
+        Long total = countQuery.fetchOne();
+        return total == null ? 0 : total;
+    }
+    private JPAQuery readOnly(JPAQuery query) {
+        return query.setHint(QueryHints.READ_ONLY, true);
     }
 }
\ No newline at end of file
@@ -0,0 +1,127 @@
+package study.querydsl.repository.support;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+import java.util.function.ToIntFunction;
+
+/**
+ * 레포지토리 쿼리 계측. actuator /actuator/metrics 에서 확인
+ * - repository.query        : 메서드별 latency (histogram)
+ * - repository.query.rows   : 메서드별 반환 row 수
+ * - repository.query.count  : 페이징 count 쿼리 실행 여부 (executed=true/false)
+ */
+@Component
+@RequiredArgsConstructor
+public class RepositoryMetrics {
+
+    private final MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> timers = new ConcurrentHashMap<>();
+    private final Map<String, DistributionSummary> rows = new ConcurrentHashMap<>();
+    private final Map<String, Counter> counts = new ConcurrentHashMap<>();
+
+    public <R> R record(String repository, String method, Supplier<R> query, ToIntFunction<R> rowCount) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        try {
+            R result = query.get();
+            rows(repository, method).record(rowCount.applyAsInt(result));
+            return result;
+        } finally {
+            sample.stop(timer(repository, method));
+        }
+    }
+
+    public <T> List<T> list(String repository, String method, Supplier<List<T>> query) {
+        return record(repository, method, query, List::size);
+    }
+
+    /**
+     * PageableExecutionUtils로 count가 필요할 때만 실행하면서 실제로 실행됐는지 같이 기록
+     */
+    public <T> Page<T> page(String repository, String method, Pageable pageable,
+                            Supplier<List<T>> contentQuery, LongSupplier countQuery) {
+        return record(repository, method, () -> {
+            List<T> content = contentQuery.get();
+            boolean[] executed = {false};
+            Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> {
+                executed[0] = true;
+                return countQuery.getAsLong();
+            });
+            count(repository, method, executed[0]).increment();
+            return page;
+        }, page -> page.getNumberOfElements());
+    }
+
+    /**
+     * page()의 비동기 버전. 이미 동시에 실행 중인 content / count future를 받음.
+     * content가 끝난 뒤 PageableExecutionUtils가 count를 필요로 하지 않으면 count future를 취소하고
+     * (아직 executor 큐에 있으면 실행되지 않음) executed=false로 기록. 결과를 기다리며 스레드를 막지 않음
+     */
+    public <T> CompletableFuture<Page<T>> pageAsync(String repository, String method, Pageable pageable,
+                                                    CompletableFuture<List<T>> contentQuery,
+                                                    CompletableFuture<Long> countQuery) {
+        Timer.Sample sample = Timer.start(meterRegistry);
+        return contentQuery
+                .thenCompose(content -> {
+                    boolean[] needed = {false};
+                    Page<T> page = PageableExecutionUtils.getPage(content, pageable, () -> {
+                        needed[0] = true;
+                        return 0;
+                    });
+                    count(repository, method, needed[0]).increment();
+                    if (!needed[0]) {
+                        countQuery.cancel(false);
+                        return CompletableFuture.completedFuture(page);
+                    }
+                    return countQuery.thenApply(total -> PageableExecutionUtils.getPage(content, pageable, () -> total));
+                })
+                .whenComplete((page, e) -> {
+                    if (page != null) {
+                        rows(repository, method).record(page.getNumberOfElements());
+                    } else {
+                        countQuery.cancel(false);
+                    }
+                    sample.stop(timer(repository, method));
+                });
+    }
+
+    private Timer timer(String repository, String method) {
+        return timers.computeIfAbsent(repository + "." + method, key -> Timer.builder("repository.query")
+                .description("repository query latency")
+                .tag("repository", repository)
+                .tag("method", method)
+                .publishPercentileHistogram()
+                .register(meterRegistry));
+    }
+
+    private DistributionSummary rows(String repository, String method) {
+        return rows.computeIfAbsent(repository + "." + method, key -> DistributionSummary.builder("repository.query.rows")
+                .description("rows returned by repository query")
+                .tag("repository", repository)
+                .tag("method", method)
+                .register(meterRegistry));
+    }
+
+    private Counter count(String repository, String method, boolean executed) {
+        return counts.computeIfAbsent(repository + "." + method + "." + executed, key -> Counter.builder("repository.query.count")
+                .description("paging count query executed or skipped")
+                .tag("repository", repository)
+                .tag("method", method)
+                .tag("executed", String.valueOf(executed))
+                .register(meterRegistry));
+    }
+}
@@ -23,6 +23,7 @@ import study.querydsl.dto.UserDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
+import study.querydsl.repository.support.FastProjections;
 
 import javax.persistence.EntityManager;
 import javax.persistence.EntityManagerFactory;
@@ -774,6 +775,64 @@ public class QuerydslBasicTest {
         }
     }
 
+    /**
+     * FastProjections: 사용법은 Projections.bean / constructor와 같은데
+     * row마다 reflection을 쓰지 않고 처음에 만들어둔 setter(BiConsumer), 생성자(MethodHandle)를 바로 호출
+     */
+    @Test
+    public void findDtoByFastProjections() throws Exception {
+        List<MemberDto> bySetter = queryFactory
+                .select(FastProjections.bean(MemberDto.class,
+                        member.userName, member.age))
+                .from(member)
+                .fetch();
+        List<MemberDto> byConstructor = queryFactory
+                .select(FastProjections.constructor(MemberDto.class,
+                        member.userName, member.age))
+                .from(member)
+                .fetch();
+        List<UserDto> byAlias = queryFactory
+                .select(FastProjections.bean(UserDto.class,
+                        member.userName.as("name"), member.age))
+                .from(member)
+                .fetch();
+
+        assertThat(bySetter).containsExactlyInAnyOrder(
+                new MemberDto("member1", 10), new MemberDto("member2", 20),
+                new MemberDto("member3", 30), new MemberDto("member4", 40));
+        assertThat(byConstructor).containsExactlyInAnyOrderElementsOf(bySetter);
+        assertThat(byAlias).extracting("name").containsExactlyInAnyOrder("member1", "member2", "member3", "member4");
+    }
+
+    // 멤버가 없는 팀을 left join 하면 member.age가 null -> int 파라미터/프로퍼티는 Projections처럼 0
+    @Test
+    public void fastProjectionsWithNullPrimitive() throws Exception {
+        em.persist(new Team("teamC"));
+
+        MemberDto byQuerydsl = queryFactory
+                .select(Projections.constructor(MemberDto.class, member.userName, member.age))
+                .from(team)
+                .leftJoin(team.members, member)
+                .where(team.name.eq("teamC"))
+                .fetchOne();
+        MemberDto byConstructor = queryFactory
+                .select(FastProjections.constructor(MemberDto.class, member.userName, member.age))
+                .from(team)
+                .leftJoin(team.members, member)
+                .where(team.name.eq("teamC"))
+                .fetchOne();
+        MemberDto bySetter = queryFactory
+                .select(FastProjections.bean(MemberDto.class, member.userName, member.age))
+                .from(team)
+                .leftJoin(team.members, member)
+                .where(team.name.eq("teamC"))
+                .fetchOne();
+
+        assertThat(byQuerydsl).isEqualTo(new MemberDto(null, 0));
+        assertThat(byConstructor).isEqualTo(byQuerydsl);
+        assertThat(bySetter).isEqualTo(byQuerydsl);
+    }
+
 
 
 
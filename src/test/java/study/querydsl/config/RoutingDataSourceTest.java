@@ -0,0 +1,114 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.repository.MemberJdbcRepository;
+import study.querydsl.repository.support.CountQueryCache;
+
+import javax.sql.DataSource;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 메모리 H2 두 개(primary, replica)로 라우팅 확인.
+ * replica의 replica_status.lag_seconds를 복제 지연으로 보고 lag-query로 읽음
+ */
+@SpringBootTest(properties = {
+        "datasource.routing.enabled=true",
+        "datasource.routing.primary.jdbc-url=jdbc:h2:mem:primary;DB_CLOSE_DELAY=-1",
+        "datasource.routing.primary.username=sa",
+        "datasource.routing.replica.jdbc-url=jdbc:h2:mem:replica;DB_CLOSE_DELAY=-1",
+        "datasource.routing.replica.username=sa",
+        "datasource.routing.lag-query=select lag_seconds from replica_status",
+        "datasource.routing.max-lag-seconds=5",
+        "datasource.routing.check-interval-millis=600000"
+})
+class RoutingDataSourceTest {
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    @Qualifier("replicaDataSource")
+    DataSource replicaDataSource;
+
+    @Autowired
+    ReplicaLagMonitor replicaLagMonitor;
+
+    @Autowired
+    MemberJdbcRepository memberJdbcRepository;
+
+    @Autowired
+    CountQueryCache countQueryCache;
+
+    @BeforeEach
+    public void before() {
+        JdbcTemplate replica = new JdbcTemplate(replicaDataSource);
+        replica.execute("create table if not exists replica_status (lag_seconds int)");
+        replica.update("delete from replica_status");
+        replica.update("insert into replica_status values (0)");
+        replicaLagMonitor.check();
+
+        // replica에만 있는 row로 어느 쪽에서 읽었는지 구분 (primary 스키마는 hibernate가 만듦)
+        replica.execute("create table if not exists team (id bigint primary key, name varchar(255))");
+        replica.execute("create table if not exists member (member_id bigint primary key, user_name varchar(255),"
+                + " age int not null, team_id bigint)");
+        replica.update("delete from member");
+        replica.update("delete from team");
+        replica.update("insert into team values (1, 'replicaTeam')");
+        replica.update("insert into member values (1, 'replicaMember', 10, 1)");
+        countQueryCache.evictAll();
+    }
+
+    @Test
+    public void readOnlyGoesToReplica() throws Exception {
+        assertThat(currentDatabase(true)).isEqualToIgnoringCase("replica");
+        assertThat(currentDatabase(false)).isEqualToIgnoringCase("primary");
+    }
+
+    @Test
+    public void laggingReplicaFallsBackToPrimary() throws Exception {
+        new JdbcTemplate(replicaDataSource).update("update replica_status set lag_seconds = 60");
+        replicaLagMonitor.check();
+
+        assertThat(replicaLagMonitor.isReplicaAvailable()).isFalse();
+        assertThat(currentDatabase(true)).isEqualToIgnoringCase("primary");
+    }
+
+    @Test
+    public void jdbcSearchGoesToReplica() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+
+        assertThat(memberJdbcRepository.search(condition))
+                .extracting(MemberTeamDto::getUserName).containsExactly("replicaMember");
+        assertThat(memberJdbcRepository.searchPage(condition, PageRequest.of(0, 10)).getContent())
+                .extracting(MemberTeamDto::getUserName).containsExactly("replicaMember");
+
+        List<String> userNames = new ArrayList<>();
+        long rows = memberJdbcRepository.forEachRow(condition,
+                (memberId, userName, age, teamId, teamName) -> userNames.add(userName));
+        assertThat(rows).isEqualTo(1);
+        assertThat(userNames).containsExactly("replicaMember");
+    }
+
+    private String currentDatabase(boolean readOnly) {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(readOnly);
+        return transactionTemplate.execute(status ->
+                jdbcTemplate.queryForObject("select database()", String.class));
+    }
+}
@@ -0,0 +1,49 @@
+package study.querydsl.config;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class SearchExecutorTest {
+
+    @Test
+    public void saturatedExecutorFailsFast() throws Exception {
+        SearchExecutor executor = new SearchExecutor(1, 1);
+        CountDownLatch release = new CountDownLatch(1);
+        try {
+            CompletableFuture<String> running = executor.supplyAsync(() -> await(release));
+            CompletableFuture<String> queued = executor.supplyAsync(() -> await(release));
+
+            // 실행 1 + 대기 1이 찬 상태. 호출한 스레드에서 대신 실행하지 않고 실패한 future
+            String caller = Thread.currentThread().getName();
+            CompletableFuture<String> rejected = executor.supplyAsync(() -> Thread.currentThread().getName());
+
+            assertThat(rejected).isCompletedExceptionally();
+            assertThatThrownBy(rejected::get)
+                    .isInstanceOf(ExecutionException.class)
+                    .hasCauseInstanceOf(RejectedExecutionException.class);
+
+            release.countDown();
+            assertThat(running.get()).isNotEqualTo(caller);
+            assertThat(queued.get()).isNotEqualTo(caller);
+        } finally {
+            release.countDown();
+            executor.shutdown();
+        }
+    }
+
+    private static String await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return Thread.currentThread().getName();
+    }
+}
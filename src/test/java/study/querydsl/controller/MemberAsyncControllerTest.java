@@ -0,0 +1,127 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.config.SearchExecutor;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * member-search.execution=async 일 때 /v2, /v3는 async 디스패치로 응답.
+ * 조회가 SearchExecutor 스레드에서 각자 트랜잭션으로 돌아서 테스트 트랜잭션 밖에서 데이터를 넣고 끝나면 지움.
+ * executor를 실행 1 + 대기 1로 줄여서 포화되면 503인지도 확인
+ */
+@SpringBootTest(properties = {
+        "member-search.execution=async",
+        "search-executor.max-concurrency=1",
+        "search-executor.queue-capacity=1"})
+@AutoConfigureMockMvc
+class MemberAsyncControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    SearchExecutor searchExecutor;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            for (int i = 0; i < 10; i++) {
+                em.persist(new Member("member" + i, i, teamA));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void v2Async() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v2/members").param("size", "3"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.content[0].teamName").value("teamA"))
+                .andExpect(jsonPath("$.totalElements").value(10));
+    }
+
+    @Test
+    public void v3Async() throws Exception {
+        MvcResult result = mockMvc.perform(get("/v3/members").param("teamName", "teamA").param("size", "20"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // 마지막 페이지라 count 쿼리 없이 total을 구함
+        mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(10))
+                .andExpect(jsonPath("$.totalElements").value(10));
+    }
+
+    @Test
+    public void saturatedExecutorReturns503() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        // 실행 1 + 대기 1을 채움
+        CompletableFuture<Void> running = searchExecutor.supplyAsync(() -> await(release));
+        CompletableFuture<Void> queued = searchExecutor.supplyAsync(() -> await(release));
+        try {
+            MvcResult result = mockMvc.perform(get("/v2/members"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+
+            mockMvc.perform(asyncDispatch(result))
+                    .andExpect(status().isServiceUnavailable());
+        } finally {
+            release.countDown();
+            running.join();
+            queued.join();
+        }
+    }
+
+    private static Void await(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return null;
+    }
+}
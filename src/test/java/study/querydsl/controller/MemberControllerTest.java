@@ -0,0 +1,77 @@
+package study.querydsl.controller;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+// 최대 페이지 크기를 작게 줄여서 확인
+@SpringBootTest(properties = "spring.data.web.pageable.max-page-size=5")
+@AutoConfigureMockMvc
+@Transactional
+class MemberControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    EntityManager em;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("member" + i, i, teamA));
+        }
+    }
+
+    @Test
+    public void syncSearchReturnsPageWithoutAsyncDispatch() throws Exception {
+        mockMvc.perform(get("/v2/members").param("size", "3"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(3))
+                .andExpect(jsonPath("$.totalElements").value(10));
+        mockMvc.perform(get("/v3/members").param("size", "3"))
+                .andExpect(request().asyncNotStarted())
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value(10));
+    }
+
+    @Test
+    public void v4RejectsNonPositiveSize() throws Exception {
+        mockMvc.perform(get("/v4/members").param("size", "0"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v4/members").param("size", "-1"))
+                .andExpect(status().isBadRequest());
+    }
+
+    @Test
+    public void v4CapsSize() throws Exception {
+        mockMvc.perform(get("/v4/members").param("size", "1000000"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(5))
+                .andExpect(jsonPath("$.hasNext").value(true));
+    }
+
+    @Test
+    public void parallelExportRejectsTooManyPartitions() throws Exception {
+        mockMvc.perform(get("/v1/members/export/parallel").param("partitions", "1000000"))
+                .andExpect(status().isBadRequest());
+        mockMvc.perform(get("/v1/members/export/parallel").param("partitions", "0"))
+                .andExpect(status().isBadRequest());
+    }
+}
@@ -0,0 +1,118 @@
+package study.querydsl.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.MemberJdbcRepository;
+
+import javax.persistence.EntityManager;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+/**
+ * /v1/members/export는 JsonGenerator로 직접 쓰므로 Jackson이 MemberTeamDto를 직렬화한 결과와 같은지 비교.
+ * StreamingResponseBody는 다른 스레드에서 실행되어 테스트 트랜잭션 밖에서 데이터를 넣고 끝나면 지움
+ */
+@SpringBootTest
+@AutoConfigureMockMvc
+class MemberExportControllerTest {
+
+    @Autowired
+    MockMvc mockMvc;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberJdbcRepository memberJdbcRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            em.persist(teamA);
+            for (int i = 0; i < 5; i++) {
+                em.persist(new Member("member" + i, i * 10, teamA));
+            }
+            em.persist(new Member("noTeam", 99));
+            em.persist(new Member(null, 7));
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void exportMatchesJacksonSerialization() throws Exception {
+        JsonNode actual = objectMapper.readTree(export("/v1/members/export"));
+
+        List<MemberTeamDto> members = memberJdbcRepository.search(new MemberSearchCondition()).stream()
+                .sorted(Comparator.comparing(MemberTeamDto::getMemberId))
+                .collect(Collectors.toList());
+        JsonNode expected = objectMapper.readTree(objectMapper.writeValueAsString(members));
+
+        assertThat(actual).hasSize(7);
+        assertThat(actual).isEqualTo(expected);
+        // 팀이 없으면 teamId, teamName 모두 null로 (필드를 빼지 않음)
+        JsonNode noTeam = actual.get(5);
+        assertThat(noTeam.get("userName").asText()).isEqualTo("noTeam");
+        assertThat(noTeam.has("teamId")).isTrue();
+        assertThat(noTeam.get("teamId").isNull()).isTrue();
+        assertThat(noTeam.get("teamName").isNull()).isTrue();
+    }
+
+    @Test
+    public void exportWithCondition() throws Exception {
+        JsonNode actual = objectMapper.readTree(export("/v1/members/export?teamName=teamA&ageGoe=20"));
+
+        assertThat(actual).hasSize(3);
+        assertThat(actual.findValuesAsText("teamName")).containsOnly("teamA");
+        assertThat(actual.get(0).fieldNames()).toIterable()
+                .containsExactly("memberId", "userName", "age", "teamId", "teamName");
+    }
+
+    private String export(String url) throws Exception {
+        MvcResult result = mockMvc.perform(get(url))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        return mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn()
+                .getResponse()
+                .getContentAsString();
+    }
+}
@@ -0,0 +1,186 @@
+package study.querydsl.controller;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.server.LocalServerPort;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.DoubleAccumulator;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * /v3/members를 동시성을 올려가며 호출하고 단계별 처리량, 지연시간, 커넥션 풀 대기(pending)를 출력.
+ * pending이 처음 0보다 커지는 단계가 풀이 포화되기 시작하는 지점.
+ * 풀 설정은 search-load 프로필 (application-search-load.yml) 기준.
+ * 오래 걸려서 test에서는 빠지고 ./gradlew loadTest 로만 실행
+ */
+@Tag("load")
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        // 풀은 search-load 프로필 설정 그대로, SQL 콘솔 로그는 지연시간을 잡아먹으니 끔
+        "logging.level.org.hibernate.SQL=info",
+        "spring.jpa.properties.hibernate.format_sql=false",
+        "spring.jpa.properties.hibernate.use_sql_comments=false"
+})
+@ActiveProfiles({"test", "search-load"})
+class MemberSearchLoadTest {
+
+    private static final int MEMBER_COUNT = 10_000;
+    private static final int REQUESTS_PER_THREAD = 50;
+    private static final int[] CONCURRENCY = {1, 2, 4, 8, 16, 32, 64};
+
+    @LocalServerPort
+    int port;
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    HttpClient client = HttpClient.newHttpClient();
+
+    @BeforeEach
+    public void before() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 0; i < MEMBER_COUNT; i++) {
+                em.persist(new Member("member" + i, i % 100, i % 2 == 0 ? teamA : teamB));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        new TransactionTemplate(transactionManager).executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void increasingConcurrency() throws Exception {
+        System.out.println("concurrency, req/s, p50 ms, p99 ms, max pending, acquire mean ms");
+        Integer saturatedAt = null;
+        for (int concurrency : CONCURRENCY) {
+            Result result = run(concurrency);
+            System.out.printf("%d, %.1f, %.2f, %.2f, %.0f, %.3f%n", concurrency, result.throughput,
+                    result.percentile(0.5), result.percentile(0.99), result.maxPending, result.acquireMeanMillis);
+            if (saturatedAt == null && result.maxPending > 0) {
+                saturatedAt = concurrency;
+            }
+        }
+        System.out.println("pool saturation begins at concurrency = " + (saturatedAt == null ? "-" : saturatedAt));
+    }
+
+    private Result run(int concurrency) throws Exception {
+        ExecutorService clients = Executors.newFixedThreadPool(concurrency);
+        ScheduledExecutorService sampler = Executors.newSingleThreadScheduledExecutor();
+        DoubleAccumulator maxPending = new DoubleAccumulator(Math::max, 0);
+        sampler.scheduleAtFixedRate(() -> maxPending.accumulate(pending()), 0, 5, TimeUnit.MILLISECONDS);
+
+        double acquireCount = acquireCount();
+        double acquireNanos = acquireNanos();
+        AtomicInteger pageNumber = new AtomicInteger();
+        List<Long> latencies = Collections.synchronizedList(new ArrayList<>());
+        long start = System.nanoTime();
+
+        List<Future<?>> futures = new ArrayList<>();
+        for (int i = 0; i < concurrency; i++) {
+            futures.add(clients.submit(() -> {
+                for (int j = 0; j < REQUESTS_PER_THREAD; j++) {
+                    latencies.add(call(pageNumber.incrementAndGet() % 100));
+                }
+                return null;
+            }));
+        }
+        for (Future<?> future : futures) {
+            future.get();
+        }
+
+        long elapsed = System.nanoTime() - start;
+        sampler.shutdownNow();
+        clients.shutdown();
+
+        double acquired = acquireCount() - acquireCount;
+        double acquireMeanMillis = acquired == 0 ? 0 : (acquireNanos() - acquireNanos) / acquired / 1_000_000;
+        return new Result(latencies, latencies.size() / (elapsed / 1_000_000_000.0), maxPending.get(),
+                acquireMeanMillis);
+    }
+
+    private long call(int page) throws Exception {
+        HttpRequest request = HttpRequest.newBuilder(
+                URI.create("http://localhost:" + port + "/v3/members?ageGoe=10&size=20&page=" + page)).build();
+        long start = System.nanoTime();
+        HttpResponse<String> response = client.send(request, HttpResponse.BodyHandlers.ofString());
+        long elapsed = System.nanoTime() - start;
+        assertThat(response.statusCode()).isEqualTo(200);
+        return elapsed;
+    }
+
+    private double pending() {
+        return meterRegistry.find("hikaricp.connections.pending").gauges().stream()
+                .mapToDouble(Gauge::value).sum();
+    }
+
+    private double acquireCount() {
+        return meterRegistry.find("hikaricp.connections.acquire").timers().stream()
+                .mapToDouble(Timer::count).sum();
+    }
+
+    private double acquireNanos() {
+        return meterRegistry.find("hikaricp.connections.acquire").timers().stream()
+                .mapToDouble(timer -> timer.totalTime(TimeUnit.NANOSECONDS)).sum();
+    }
+
+    static class Result {
+        final List<Long> latencies;
+        final double throughput;
+        final double maxPending;
+        final double acquireMeanMillis;
+
+        Result(List<Long> latencies, double throughput, double maxPending, double acquireMeanMillis) {
+            this.latencies = new ArrayList<>(latencies);
+            Collections.sort(this.latencies);
+            this.throughput = throughput;
+            this.maxPending = maxPending;
+            this.acquireMeanMillis = acquireMeanMillis;
+        }
+
+        double percentile(double p) {
+            int index = (int) Math.ceil(p * latencies.size()) - 1;
+            return latencies.get(Math.max(index, 0)) / 1_000_000.0;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package study.querydsl.entity;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.monitoring.StatementCounter;
+import study.querydsl.repository.MemberRepository;
+import study.querydsl.repository.TeamRepository;
+import study.querydsl.repository.support.CountQueryCache;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * search 조건 shape별로 repository가 실제로 만든 SQL을 StatementCounter로 잡아서 H2 EXPLAIN으로 어떤 인덱스를 쓰는지 확인.
+ * 잡힌 SQL은 파라미터가 ?라서 repository에 넘긴 값을 같은 순서로 바인딩 (hibernate가 붙인 주석은 뺌)
+ */
+@SpringBootTest
+@Transactional
+class MemberIndexTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    StatementCounter statementCounter;
+
+    @Autowired
+    CountQueryCache countQueryCache;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    Long team1Id;
+
+    @BeforeEach
+    public void before() {
+        for (int i = 0; i < 10; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            for (int j = 0; j < 20; j++) {
+                em.persist(new Member("member" + i + "_" + j, j, team));
+            }
+        }
+        em.flush();
+        em.clear();
+        team1Id = teamRepository.findIdsByName("team1").get(0);
+        // 다른 테스트에서 같은 조건의 count가 캐시돼 있으면 count 쿼리가 안 나감
+        countQueryCache.evictAll();
+    }
+
+    @Test
+    public void teamNameUsesIndex() throws Exception {
+        List<String> statements = capture(() -> teamRepository.findIdsByName("team1"));
+
+        String plan = explain(find(statements, sql -> sql.contains("from team")), "team1");
+        assertThat(plan).contains("IDX_TEAM_NAME").doesNotContain("tableScan");
+    }
+
+    @Test
+    public void userNameUsesIndex() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUserName("member1_1");
+
+        List<String> statements = capture(() -> memberRepository.search(condition));
+
+        // 팀 이름 조건이 없으면 team을 left join 하는 모양
+        String sql = find(statements, this::isMemberContent);
+        assertThat(sql).contains("left outer join team");
+        assertThat(explain(sql, "member1_1")).contains("IDX_MEMBER_USER_NAME").doesNotContain("tableScan");
+    }
+
+    @Test
+    public void ageRangeWithLeftJoinUsesIndex() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(5);
+        condition.setAgeLoe(10);
+
+        List<String> statements = capture(() -> memberRepository.search(condition));
+
+        String sql = find(statements, this::isMemberContent);
+        assertThat(sql).contains("left outer join team");
+        assertThat(explain(sql, 5, 10)).contains("IDX_MEMBER_AGE_ID").doesNotContain("tableScan");
+    }
+
+    @Test
+    public void teamAndAgeUsesIndex() throws Exception {
+        MemberSearchCondition condition = teamAndAge();
+
+        List<String> statements = capture(() -> memberRepository.search(condition));
+
+        // team id로 바꿔서 조회하므로 team 조인 없음
+        String sql = find(statements, this::isMemberContent);
+        assertThat(sql).doesNotContain("join");
+        assertThat(explain(sql, team1Id, 5, 10)).contains("IDX_MEMBER_TEAM_AGE").doesNotContain("tableScan");
+    }
+
+    @Test
+    public void countQueryUsesIndex() throws Exception {
+        MemberSearchCondition condition = teamAndAge();
+
+        // 6건 중 첫 페이지 3건 -> count 쿼리가 나감
+        List<String> statements = capture(() -> memberRepository.searchPageComplex(condition, PageRequest.of(0, 3)));
+
+        String sql = find(statements, this::isMemberCount);
+        assertThat(sql).doesNotContain("join");
+        assertThat(explain(sql, team1Id, 5, 10)).contains("IDX_MEMBER_TEAM_AGE").doesNotContain("tableScan");
+    }
+
+    @Test
+    public void keysetUsesIndex() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team1");
+
+        List<String> statements = capture(() -> memberRepository.searchSliceByKeyset(condition, 10L, 20));
+
+        // where team_id in (?) and member_id > ? order by member_id limit ?
+        String sql = find(statements, this::isMemberContent);
+        assertThat(explain(sql, team1Id, 10L, 21)).contains("IDX_MEMBER_TEAM_ID").doesNotContain("tableScan");
+    }
+
+    private MemberSearchCondition teamAndAge() {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("team1");
+        condition.setAgeGoe(5);
+        condition.setAgeLoe(10);
+        return condition;
+    }
+
+    private List<String> capture(Runnable query) {
+        try (StatementCounter.Scope scope = statementCounter.open()) {
+            query.run();
+            return scope.getStatements();
+        }
+    }
+
+    private boolean isMemberContent(String sql) {
+        return sql.contains("from member") && !sql.contains("count(");
+    }
+
+    private boolean isMemberCount(String sql) {
+        return sql.contains("from member") && sql.contains("count(");
+    }
+
+    private String find(List<String> statements, Predicate<String> predicate) {
+        List<String> found = statements.stream()
+                .map(sql -> sql.replaceAll("(?s)/\\*.*?\\*/", "").toLowerCase().replaceAll("\\s+", " ").trim())
+                .filter(predicate)
+                .collect(Collectors.toList());
+        assertThat(found).as("captured statements %s", statements).hasSize(1);
+        return found.get(0);
+    }
+
+    private String explain(String sql, Object... args) {
+        return jdbcTemplate.queryForObject("explain " + sql, String.class, args);
+    }
+}
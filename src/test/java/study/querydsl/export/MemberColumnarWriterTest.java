@@ -0,0 +1,79 @@
+package study.querydsl.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import study.querydsl.dto.MemberTeamDto;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class MemberColumnarWriterTest {
+
+    @Test
+    public void roundTrip() throws Exception {
+        List<MemberTeamDto> rows = new ArrayList<>();
+        for (long i = 1; i <= 10; i++) {
+            boolean noTeam = i % 3 == 0;
+            rows.add(new MemberTeamDto(i, "member" + i, (int) i * 3,
+                    noTeam ? null : i % 3, noTeam ? null : "team" + i % 3));
+        }
+        rows.add(new MemberTeamDto(20L, null, -1, 1L, "team1"));
+        rows.add(new MemberTeamDto(21L, "회원", 0, 2L, "team2"));
+
+        // 블록 크기를 작게 해서 여러 블록 + 블록을 넘는 팀 사전 재사용까지 확인
+        List<MemberTeamDto> result = MemberColumnarReader.readAll(new ByteArrayInputStream(write(rows, 4)));
+
+        assertThat(result).hasSize(rows.size());
+        for (int i = 0; i < rows.size(); i++) {
+            assertThat(result.get(i)).isEqualTo(rows.get(i));
+        }
+    }
+
+    @Test
+    public void empty() throws Exception {
+        byte[] bytes = write(new ArrayList<>(), 4);
+        assertThat(MemberColumnarReader.readAll(new ByteArrayInputStream(bytes))).isEmpty();
+    }
+
+    @Test
+    public void smallerThanJson() throws Exception {
+        List<MemberTeamDto> rows = new ArrayList<>();
+        for (long i = 1; i <= 1000; i++) {
+            rows.add(new MemberTeamDto(i, "member" + i, (int) (i % 100), i % 10, "team" + i % 10));
+        }
+        byte[] bytes = write(rows, MemberColumnarWriter.DEFAULT_BLOCK_SIZE);
+        byte[] json = new ObjectMapper().writeValueAsBytes(rows);
+
+        // JSON 약 78.7KB -> 약 13.3KB (약 5.9배). row당 약 13바이트 중 9바이트 정도가 userName 원문이라
+        // 숫자 컬럼(id delta, age, team 번호)과 이름 길이는 row당 1바이트씩으로 줄지만 전체로는 10배까지 가지 않음
+        assertThat(bytes.length).isLessThan(json.length / 5);
+        assertThat(bytes.length - utf8Length(rows)).isLessThan(rows.size() * 5);
+    }
+
+    private static int utf8Length(List<MemberTeamDto> rows) {
+        return rows.stream().mapToInt(row -> row.getUserName().getBytes(StandardCharsets.UTF_8).length).sum();
+    }
+
+    @Test
+    public void rejectsOtherStream() throws Exception {
+        assertThatThrownBy(() -> MemberColumnarReader.readAll(new ByteArrayInputStream("[]".getBytes())))
+                .isInstanceOf(IOException.class);
+    }
+
+    private byte[] write(List<MemberTeamDto> rows, int blockSize) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        MemberColumnarWriter writer = new MemberColumnarWriter(out, blockSize);
+        for (MemberTeamDto row : rows) {
+            writer.row(row.getMemberId(), row.getUserName(), row.getAge(), row.getTeamId(), row.getTeamName());
+        }
+        writer.finish();
+        return out.toByteArray();
+    }
+}
@@ -0,0 +1,158 @@
+package study.querydsl.export;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.config.ExportExecutor;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.PartitionedExportResult;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.export.MemberPartitionedExporter.IdRange;
+
+import javax.persistence.EntityManager;
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+/**
+ * 파티션은 ExportExecutor 스레드에서 각자 트랜잭션으로 읽어서 테스트 트랜잭션 밖에서 데이터를 넣고 끝나면 지움
+ */
+@SpringBootTest
+class MemberPartitionedExporterTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberPartitionedExporter exporter;
+
+    @Autowired
+    ExportExecutor exportExecutor;
+
+    @Autowired
+    ObjectMapper objectMapper;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 0; i < 50; i++) {
+                em.persist(new Member("member" + i, i, i % 2 == 0 ? teamA : teamB));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void partition() throws Exception {
+        List<IdRange> ranges = MemberPartitionedExporter.partition(1, 10, 3);
+
+        assertThat(ranges).extracting(r -> r.fromId).containsExactly(1L, 5L, 8L);
+        assertThat(ranges).extracting(r -> r.toId).containsExactly(4L, 7L, 10L);
+    }
+
+    @Test
+    public void partitionSmallerThanCount() throws Exception {
+        List<IdRange> ranges = MemberPartitionedExporter.partition(7, 8, 4);
+
+        assertThat(ranges).hasSize(2);
+        assertThat(ranges).extracting(r -> r.fromId).containsExactly(7L, 8L);
+        assertThat(ranges).extracting(r -> r.toId).containsExactly(7L, 8L);
+    }
+
+    @Test
+    public void exportMerged() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        PartitionedExportResult result = exporter.exportMerged(new MemberSearchCondition(), 4, out);
+
+        List<JsonNode> rows = readLines(out.toString(StandardCharsets.UTF_8));
+        assertThat(result.getRows()).isEqualTo(50);
+        assertThat(result.getPartitionRows()).hasSize(4);
+        assertThat(rows).hasSize(50);
+        // 파티션이 끝난 순서와 상관없이 id 순서
+        assertThat(rows).extracting(row -> row.get("memberId").asLong()).isSorted();
+        assertThat(rows).extracting(row -> row.get("teamName").asText()).containsOnly("teamA", "teamB");
+    }
+
+    @Test
+    public void exportToDirectory(@TempDir Path directory) throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(10);
+
+        PartitionedExportResult result = exporter.exportToDirectory(condition, 3, directory);
+
+        assertThat(result.getFiles()).hasSize(3);
+        List<JsonNode> rows = new ArrayList<>();
+        for (String file : result.getFiles()) {
+            rows.addAll(readLines(Files.readString(Paths.get(file))));
+        }
+        assertThat(result.getRows()).isEqualTo(20);
+        assertThat(rows).hasSize(20);
+        assertThat(rows).extracting(row -> row.get("teamName").asText()).containsOnly("teamB");
+        assertThat(rows).extracting(row -> row.get("age").asInt()).allMatch(age -> age >= 10);
+    }
+
+    @Test
+    public void partitionsAreCapped() throws Exception {
+        int tooMany = exporter.getMaxPartitions() + 1;
+
+        assertThatThrownBy(() -> exporter.exportMerged(new MemberSearchCondition(), tooMany, new ByteArrayOutputStream()))
+                .isInstanceOf(IllegalArgumentException.class);
+        // 검색 executor가 아니라 export 전용 동시 실행 수 기준
+        assertThat(exporter.getMaxPartitions()).isEqualTo(exportExecutor.getMaxConcurrency() * 4);
+        assertThat(exporter.getDefaultPartitions()).isEqualTo(exportExecutor.getMaxConcurrency());
+    }
+
+    @Test
+    public void exportEmpty() throws Exception {
+        after();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        PartitionedExportResult result = exporter.exportMerged(new MemberSearchCondition(), 4, out);
+
+        assertThat(result.getRows()).isEqualTo(0);
+        assertThat(out.size()).isEqualTo(0);
+    }
+
+    private List<JsonNode> readLines(String ndjson) throws Exception {
+        List<JsonNode> rows = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            if (!line.isEmpty()) {
+                rows.add(objectMapper.readTree(line));
+            }
+        }
+        return rows;
+    }
+}
@@ -0,0 +1,59 @@
+package study.querydsl.monitoring;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.monitoring.SqlProfiler.SqlStatsSnapshot;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest(properties = "sql-profiler.sample-rate=1.0")
+@Transactional
+class SqlProfilerTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    SqlProfiler sqlProfiler;
+
+    @Test
+    public void normalize() throws Exception {
+        String sql = "/* select m from Member m */ select member0_.member_id as member_i1_1_\n" +
+                "  from member member0_ where member0_.user_name='member1' and member0_.age in (10, 20, 30)";
+
+        assertThat(SqlNormalizer.normalize(sql)).isEqualTo(
+                "select member0_.member_id as member_i1_1_ from member member0_ " +
+                        "where member0_.user_name=? and member0_.age in (?)");
+    }
+
+    @Test
+    public void profile() throws Exception {
+        sqlProfiler.reset();
+        for (int i = 0; i < 3; i++) {
+            em.persist(new Member("member" + i, i));
+        }
+        em.flush();
+
+        for (int i = 0; i < 2; i++) {
+            em.createQuery("select m from Member m where m.age >= :age", Member.class)
+                    .setParameter("age", 0)
+                    .getResultList();
+        }
+
+        // sample-rate 1.0 이라 전부 집계됨
+        List<SqlStatsSnapshot> top = sqlProfiler.top(20);
+        SqlStatsSnapshot select = top.stream()
+                .filter(stats -> stats.getSql().startsWith("select") && stats.getSql().contains("age>=?"))
+                .findFirst()
+                .orElseThrow();
+        assertThat(select.getCount()).isEqualTo(2);
+        assertThat(select.getRows()).isEqualTo(6);
+        assertThat(select.getMaxNanos()).isLessThanOrEqualTo(select.getTotalNanos());
+    }
+}
@@ -0,0 +1,69 @@
+package study.querydsl.monitoring;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@SpringBootTest
+@Transactional
+class StatementCounterTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    StatementCounter statementCounter;
+
+    @BeforeEach
+    public void before() {
+        for (int i = 0; i < 5; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            em.persist(new Member("member" + i, i, team));
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void queryPerRowIsDetected() throws Exception {
+        try (StatementCounter.Scope scope = statementCounter.open(2)) {
+            List<Member> members = em.createQuery("select m from Member m", Member.class)
+                    .getResultList();
+            // 지연 로딩은 @BatchSize로 묶이지만 루프 안에서 직접 조회하면 여전히 row 마다 select
+            for (Member member : members) {
+                em.createQuery("select t from Team t where t.name = :name", Team.class)
+                        .setParameter("name", "team" + member.getAge())
+                        .getSingleResult();
+            }
+
+            assertThatThrownBy(scope::assertNoRepeatedStatements)
+                    .isInstanceOf(NPlusOneDetectedException.class);
+            assertThat(scope.getRepeatedStatements()).containsValue(5);
+        }
+    }
+
+    @Test
+    public void fetchJoinPasses() throws Exception {
+        try (StatementCounter.Scope scope = statementCounter.open(2)) {
+            List<Member> members = em.createQuery("select m from Member m join fetch m.team", Member.class)
+                    .getResultList();
+            for (Member member : members) {
+                member.getTeam().getName();
+            }
+
+            scope.assertNoRepeatedStatements();
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+        }
+    }
+}
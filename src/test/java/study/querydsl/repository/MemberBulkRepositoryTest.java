@@ -0,0 +1,148 @@
+package study.querydsl.repository;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.dto.BulkResult;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 청크마다 커밋하는 벌크 연산과 다른 스레드에서 실행되는 비동기 검색은
+ * 테스트 트랜잭션 안에서는 확인할 수 없어서 트랜잭션 없이 실행하고 끝나면 데이터를 지움
+ */
+@SpringBootTest
+class MemberBulkRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberRepository memberRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        tx.executeWithoutResult(status -> {
+            Team teamA = new Team("teamA");
+            Team teamB = new Team("teamB");
+            em.persist(teamA);
+            em.persist(teamB);
+            for (int i = 0; i < 10; i++) {
+                em.persist(new Member("member" + i, i, i % 2 == 0 ? teamA : teamB));
+            }
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void bulkAddAgeTest() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        BulkResult result = memberRepository.bulkAddAge(condition, 100, 3);
+
+        // 조건에 맞는 5건을 3개씩 (전체 id 범위가 아니라 대상 row 기준)
+        assertThat(result.getAffectedRows()).isEqualTo(5);
+        assertThat(result.getChunks()).isEqualTo(2);
+        assertThat(memberRepository.search(condition)).extracting("age")
+                .containsExactlyInAnyOrder(100, 102, 104, 106, 108);
+
+        condition.setTeamName("teamB");
+        assertThat(memberRepository.search(condition)).extracting("age")
+                .containsExactlyInAnyOrder(1, 3, 5, 7, 9);
+    }
+
+    @Test
+    public void bulkDeleteTest() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(4);
+        MemberSearchCondition all = new MemberSearchCondition();
+
+        // 삭제 전에 count를 캐시에 올려둠 -> 벌크 연산 후에는 새로 세야 함
+        assertThat(memberRepository.searchPageComplex(all, PageRequest.of(1, 3)).getTotalElements()).isEqualTo(10);
+
+        BulkResult result = memberRepository.bulkDelete(condition, 4);
+
+        assertThat(result.getAffectedRows()).isEqualTo(6);
+        assertThat(result.getChunks()).isEqualTo(2);
+        assertThat(memberRepository.search(all)).extracting("age").containsExactlyInAnyOrder(0, 1, 2, 3);
+        assertThat(memberRepository.searchPageComplex(all, PageRequest.of(1, 3)).getTotalElements()).isEqualTo(4);
+    }
+
+    @Test
+    public void bulkSkipsRangesWithoutMatches() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUserName("member9");
+
+        // id 범위 전체를 1개씩 자르면 청크 10개지만 대상 row가 있는 청크만 실행
+        BulkResult result = memberRepository.bulkAddAge(condition, 1, 1);
+
+        assertThat(result.getAffectedRows()).isEqualTo(1);
+        assertThat(result.getChunks()).isEqualTo(1);
+        assertThat(memberRepository.search(condition)).extracting("age").containsExactly(10);
+    }
+
+    @Test
+    public void searchPageComplexAsyncTest() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        PageRequest pageRequest = PageRequest.of(1, 2);
+
+        Page<MemberTeamDto> async = memberRepository.searchPageComplexAsync(condition, pageRequest).get();
+        Page<MemberTeamDto> sync = memberRepository.searchPageComplex(condition, pageRequest);
+
+        assertThat(async.getTotalElements()).isEqualTo(5);
+        assertThat(async.getContent()).containsExactlyElementsOf(sync.getContent());
+    }
+
+    @Test
+    public void searchPageComplexAsyncSkipsCount() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        double skipped = countExecuted("false");
+        double executed = countExecuted("true");
+
+        // 첫 페이지인데 content가 페이지 크기보다 작으면 total = content 크기 (count 결과는 쓰지 않음)
+        Page<MemberTeamDto> result = memberRepository.searchPageComplexAsync(condition, PageRequest.of(0, 20)).get();
+
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(countExecuted("false")).isEqualTo(skipped + 1);
+        assertThat(countExecuted("true")).isEqualTo(executed);
+    }
+
+    private double countExecuted(String executed) {
+        return meterRegistry.find("repository.query.count")
+                .tags("repository", "MemberRepository", "method", "searchPageComplexAsync", "executed", executed)
+                .counters().stream().mapToDouble(Counter::count).sum();
+    }
+}
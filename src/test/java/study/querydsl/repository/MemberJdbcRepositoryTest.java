@@ -0,0 +1,125 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.dto.MemberTeamDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class MemberJdbcRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberJdbcRepository memberJdbcRepository;
+
+    @Autowired
+    MemberJpaRepository memberJpaRepository;
+
+    @BeforeEach
+    public void before() {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void searchTest() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(35);
+
+        List<MemberTeamDto> result = memberJdbcRepository.search(condition);
+
+        // jpa 경로와 결과가 같아야 함 (MemberTeamDto는 @Data라 equals로 비교)
+        assertThat(result).containsExactlyInAnyOrderElementsOf(memberJpaRepository.search(condition));
+        assertThat(result).extracting("userName").containsExactly("member4");
+        assertThat(result).extracting("teamName").containsExactly("teamB");
+    }
+
+    @Test
+    public void memberWithoutTeam() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUserName("member5");
+
+        List<MemberTeamDto> result = memberJdbcRepository.search(condition);
+
+        assertThat(result).hasSize(1);
+        assertThat(result.get(0).getTeamId()).isNull();
+        assertThat(result.get(0).getTeamName()).isNull();
+    }
+
+    @Test
+    public void searchPageTest() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(1, 2);
+
+        Page<MemberTeamDto> result = memberJdbcRepository.searchPage(condition, pageRequest);
+
+        assertThat(result.getTotalElements()).isEqualTo(5);
+        assertThat(result.getContent()).extracting("userName").containsExactly("member3", "member4");
+    }
+
+    @Test
+    public void searchPageByTeamName() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+
+        Page<MemberTeamDto> result = memberJdbcRepository.searchPage(condition, PageRequest.of(0, 1));
+
+        // team은 조인하지 않고 team id로 거르고, 팀 이름은 조건 값으로 채움
+        assertThat(result.getTotalElements()).isEqualTo(2);
+        assertThat(result.getContent()).extracting("userName").containsExactly("member1");
+        assertThat(result.getContent()).extracting("teamName").containsExactly("teamA");
+    }
+
+    @Test
+    public void noTeamMatched() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("none");
+
+        assertThat(memberJdbcRepository.search(condition)).isEmpty();
+        assertThat(memberJdbcRepository.searchPage(condition, PageRequest.of(0, 10)).getTotalElements()).isZero();
+        assertThat(memberJdbcRepository.forEachRow(condition, (memberId, userName, age, teamId, teamName) -> {
+        })).isZero();
+    }
+
+    @Test
+    public void forEachRowTest() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        List<MemberTeamDto> rows = new ArrayList<>();
+
+        long count = memberJdbcRepository.forEachRow(condition, (memberId, userName, age, teamId, teamName) ->
+                rows.add(new MemberTeamDto(memberId, userName, age, teamId, teamName)));
+
+        // 테스트에서 비교하려고 DTO로 모았을 뿐, export는 row 값을 바로 씀
+        assertThat(count).isEqualTo(5);
+        assertThat(rows).containsExactlyInAnyOrderElementsOf(memberJdbcRepository.search(condition));
+        assertThat(rows).extracting("userName")
+                .containsExactly("member1", "member2", "member3", "member4", "member5");
+    }
+}
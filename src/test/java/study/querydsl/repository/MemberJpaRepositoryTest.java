@@ -1,6 +1,7 @@
 package study.querydsl.repository;
 
 import org.assertj.core.api.Assertions;
+import org.hibernate.Session;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -9,9 +10,11 @@ import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.Team;
+import study.querydsl.monitoring.StatementCounter;
 
 import javax.persistence.EntityManager;
 
+import java.util.ArrayList;
 import java.util.List;
 
 import static org.assertj.core.api.Assertions.*;
@@ -27,6 +30,12 @@ class MemberJpaRepositoryTest {
     @Autowired
     MemberJpaRepository memberJpaRepository;
 
+    @Autowired
+    MemberSearchQueryCache searchQueryCache;
+
+    @Autowired
+    StatementCounter statementCounter;
+
     @Test
     public void basicTest() throws Exception {
         Member member = new Member("member1", 10);
@@ -86,4 +95,103 @@ class MemberJpaRepositoryTest {
         List<MemberTeamDto> result = memberJpaRepository.search(condition);
         assertThat(result).extracting("userName").containsExactly("member4");
     }
-}
\ No newline at end of file
+
+    @Test
+    public void streamSearchTest() throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 1200; i++) {
+            em.persist(new Member("member" + i, i, teamA));
+        }
+        em.flush();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(100);
+
+        // fetch size(500)보다 많이 넘겨서 중간에 clear가 일어나도 끝까지 읽히는지 확인
+        List<MemberTeamDto> result = new ArrayList<>();
+        memberJpaRepository.streamSearch(condition, result::add);
+
+        assertThat(result).hasSize(1100);
+        assertThat(result).containsExactlyInAnyOrderElementsOf(memberJpaRepository.search(condition));
+    }
+
+    @Test
+    public void searchQueryCacheTest() throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Team("teamB"));
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+
+        MemberSearchCondition first = new MemberSearchCondition();
+        first.setTeamName("teamA");
+        first.setAgeGoe(15);
+        memberJpaRepository.search(first);
+        long hit = searchQueryCache.getHitCount();
+
+        // 값만 다르고 채워진 필드가 같으면 같은 JPQL을 재사용
+        MemberSearchCondition sameShape = new MemberSearchCondition();
+        sameShape.setTeamName("teamB");
+        sameShape.setAgeGoe(0);
+        sameShape.setUserName("");  // 빈 문자열은 조건 없음
+        memberJpaRepository.search(sameShape);
+        assertThat(searchQueryCache.getHitCount()).isEqualTo(hit + 1);
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        condition.setAgeGoe(15);
+        assertThat(memberJpaRepository.search(condition)).extracting("userName").containsExactly("member2");
+        assertThat(searchQueryCache.size()).isLessThanOrEqualTo(16);
+    }
+
+    @Test
+    public void searchMemberIsReadOnly() throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        em.persist(new Member("member1", 10, teamA));
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setAgeGoe(10);
+        condition.setAgeLoe(10);
+        List<Member> result = memberJpaRepository.searchMember(condition);
+
+        // read-only로 로딩된 엔티티는 스냅샷이 없어서 바꿔도 flush 때 update가 나가지 않음
+        Member findMember = result.get(0);
+        assertThat(em.unwrap(Session.class).isReadOnly(findMember)).isTrue();
+        findMember.setAge(99);
+        em.flush();
+        em.clear();
+
+        assertThat(memberJpaRepository.findById(findMember.getId()).get().getAge()).isEqualTo(10);
+    }
+
+    @Test
+    public void saveAllTest() throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+
+        List<Member> members = new ArrayList<>();
+        for (int i = 0; i < 2500; i++) {
+            members.add(new Member("bulk" + i, i % 100, teamA));
+        }
+        int saved;
+        // JDBC batch면 insert 문은 batch마다 한 번만 prepare 됨 (2500건 / batch_size 1000 = 3번)
+        try (StatementCounter.Scope scope = statementCounter.open(3)) {
+            saved = memberJpaRepository.saveAll(members);
+
+            assertThat(scope.getRepeatedStatements().keySet())
+                    .noneMatch(sql -> sql.toLowerCase().startsWith("insert"));
+            assertThat(scope.getStatementCount()).isLessThan(100);
+        }
+
+        // batch_size마다 flush/clear 되므로 저장한 엔티티는 영속성 컨텍스트에 남아 있지 않음
+        assertThat(saved).isEqualTo(2500);
+        assertThat(em.contains(members.get(0))).isFalse();
+        assertThat(members).allMatch(member -> member.getId() != null);
+        assertThat(memberJpaRepository.findAll()).hasSize(2500);
+    }
+}
@@ -1,21 +1,30 @@
 package study.querydsl.repository;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.transaction.annotation.Transactional;
 import study.querydsl.dto.MemberSearchCondition;
 import study.querydsl.dto.MemberTeamDto;
 import study.querydsl.entity.Member;
 import study.querydsl.entity.QMember;
 import study.querydsl.entity.Team;
+import study.querydsl.monitoring.StatementCounter;
+import study.querydsl.repository.support.CountQueryCache;
 
 import javax.persistence.EntityManager;
+import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 
 @SpringBootTest
 @Transactional
@@ -26,6 +35,15 @@ class MemberRepositoryTest {
     @Autowired
     MemberRepository memberRepository;
 
+    @Autowired
+    CountQueryCache countQueryCache;
+
+    @Autowired
+    MeterRegistry meterRegistry;
+
+    @Autowired
+    StatementCounter statementCounter;
+
     @Test
     public void basicTest() throws Exception {
         Member member = new Member("member1", 10);
@@ -90,6 +108,195 @@ class MemberRepositoryTest {
         Page<MemberTeamDto> result = memberRepository.searchPageSimple(condition, pageRequest);
         assertThat(result.getSize()).isEqualTo(3);
         assertThat(result.getContent()).extracting("userName").containsExactly("member1", "member2", "member3");
+        assertThat(result.getTotalElements()).isEqualTo(4);
+
+        // 팀 조건이 있을때는 count에도 조인이 들어가야 함
+        condition.setTeamName("teamB");
+        Page<MemberTeamDto> simple = memberRepository.searchPageSimple(condition, PageRequest.of(1, 1));
+        Page<MemberTeamDto> complex = memberRepository.searchPageComplex(condition, PageRequest.of(1, 1));
+        assertThat(simple.getTotalElements()).isEqualTo(2);
+        assertThat(simple.getContent()).isEqualTo(complex.getContent());
+        assertThat(simple.getTotalElements()).isEqualTo(complex.getTotalElements());
+    }
+
+    @Test
+    public void searchSliceByKeysetTest() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        for (int i = 0; i < 200; i++) {
+            Team selectedTeam = i % 2 == 0 ? teamA : teamB;
+            em.persist(new Member("member" + i, i, selectedTeam));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        int size = 10;
+
+        // keyset으로 끝까지 넘기면서 offset 방식의 같은 페이지와 결과가 같은지 비교
+        Long lastMemberId = null;
+        int pageNumber = 0;
+        Slice<MemberTeamDto> slice;
+        do {
+            slice = memberRepository.searchSliceByKeyset(condition, lastMemberId, size);
+            Page<MemberTeamDto> offsetPage = memberRepository.searchPageComplex(condition, PageRequest.of(pageNumber, size));
+
+            List<Long> offsetIds = offsetPage.getContent().stream()
+                    .map(MemberTeamDto::getMemberId)
+                    .collect(Collectors.toList());
+            assertThat(slice.getContent()).extracting("memberId").containsExactlyElementsOf(offsetIds);
+            assertThat(slice.hasNext()).isEqualTo(offsetPage.hasNext());
+
+            if (!slice.getContent().isEmpty()) {
+                lastMemberId = slice.getContent().get(slice.getContent().size() - 1).getMemberId();
+            }
+            pageNumber++;
+        } while (slice.hasNext());
+
+        assertThat(pageNumber).isEqualTo(10);
+    }
+
+    @Test
+    public void searchSliceByKeysetDeepPage() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        List<Long> teamBIds = new ArrayList<>();
+        for (int i = 0; i < 3000; i++) {
+            Member member = new Member("member" + i, i % 100, i % 2 == 0 ? teamA : teamB);
+            em.persist(member);
+            if (member.getTeam() == teamB) {
+                teamBIds.add(member.getId());
+            }
+        }
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        int size = 20;
+        int pageNumber = 70;    // teamB 1500건 중 1400번째부터
+
+        // 바로 앞 페이지의 마지막 id부터 keyset으로 읽은 결과 = 같은 페이지를 offset으로 읽은 결과 = id 순서로 자른 결과
+        Page<MemberTeamDto> previous = memberRepository.searchPageComplex(condition, PageRequest.of(pageNumber - 1, size));
+        Long lastMemberId = previous.getContent().get(size - 1).getMemberId();
+        Slice<MemberTeamDto> slice = memberRepository.searchSliceByKeyset(condition, lastMemberId, size);
+        Page<MemberTeamDto> offsetPage = memberRepository.searchPageComplex(condition, PageRequest.of(pageNumber, size));
+
+        List<Long> expected = teamBIds.subList(pageNumber * size, (pageNumber + 1) * size);
+        assertThat(offsetPage.getContent()).extracting("memberId").containsExactlyElementsOf(expected);
+        assertThat(slice.getContent()).extracting("memberId").containsExactlyElementsOf(expected);
+        assertThat(slice.hasNext()).isEqualTo(offsetPage.hasNext()).isTrue();
+        assertThat(offsetPage.getTotalElements()).isEqualTo(1500);
+    }
+
+    @Test
+    public void searchSliceByKeysetRejectsNonPositiveSize() throws Exception {
+        assertThatThrownBy(() -> memberRepository.searchSliceByKeyset(new MemberSearchCondition(), null, 0))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void countQueryCacheTest() throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("member" + i, i, teamA));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamA");
+        long hit = countQueryCache.getHitCount();
+        long miss = countQueryCache.getMissCount();
+
+        // 중간 페이지는 count가 필요함. 첫번째는 miss, 같은 조건으로 다음 페이지는 hit
+        Page<MemberTeamDto> page1 = memberRepository.searchPageComplex(condition, PageRequest.of(1, 3));
+        Page<MemberTeamDto> page2 = memberRepository.searchPageSimple(condition, PageRequest.of(2, 3));
+        assertThat(page1.getTotalElements()).isEqualTo(10);
+        assertThat(page2.getTotalElements()).isEqualTo(10);
+        assertThat(countQueryCache.getMissCount()).isEqualTo(miss + 1);
+        assertThat(countQueryCache.getHitCount()).isEqualTo(hit + 1);
+
+        // 빈 문자열 조건은 조건이 없는 것과 같은 키
+        MemberSearchCondition blankUserName = new MemberSearchCondition();
+        blankUserName.setTeamName("teamA");
+        blankUserName.setUserName("");
+        memberRepository.searchPageComplex(blankUserName, PageRequest.of(1, 3));
+        assertThat(countQueryCache.getHitCount()).isEqualTo(hit + 2);
+
+        // 저장해도 트랜잭션이 끝나기 전에는 캐시를 비우지 않음 (CountQueryCacheEvictListenerTest)
+        memberRepository.save(new Member("member10", 10, teamA));
+        Page<MemberTeamDto> afterSave = memberRepository.searchPageComplex(condition, PageRequest.of(1, 3));
+        assertThat(afterSave.getTotalElements()).isEqualTo(10);
+        assertThat(countQueryCache.getHitCount()).isEqualTo(hit + 3);
+    }
+
+    @Test
+    public void repositoryMetricsTest() throws Exception {
+        Team teamA = new Team("teamA");
+        em.persist(teamA);
+        for (int i = 0; i < 5; i++) {
+            em.persist(new Member("member" + i, i, teamA));
+        }
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        double skipped = countOf("false");
+        double executed = countOf("true");
+        long timed = meterRegistry.find("repository.query")
+                .tags("repository", "MemberRepository", "method", "searchPageComplex")
+                .timers().stream().mapToLong(Timer::count).sum();
+
+        // 첫 페이지에서 컨텐츠가 페이지 사이즈보다 작으면 count 생략, 중간 페이지면 실행
+        memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+        memberRepository.searchPageComplex(condition, PageRequest.of(1, 2));
+
+        assertThat(countOf("false")).isEqualTo(skipped + 1);
+        assertThat(countOf("true")).isEqualTo(executed + 1);
+        assertThat(meterRegistry.get("repository.query")
+                .tags("repository", "MemberRepository", "method", "searchPageComplex")
+                .timer().count()).isEqualTo(timed + 2);
+    }
+
+    private double countOf(String executed) {
+        // 아직 기록된 적이 없으면 meter가 없음
+        return meterRegistry.find("repository.query.count")
+                .tags("repository", "MemberRepository", "method", "searchPageComplex", "executed", executed)
+                .counters().stream().mapToDouble(Counter::count).sum();
+    }
+
+    @Test
+    public void searchByTeamNameWithoutJoinTest() throws Exception {
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamB));
+        em.persist(new Member("member3", 30, teamB));
+        em.flush();
+        em.clear();
+
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+
+        // team 조인 없이 조회해도 팀 이름은 채워져야 함
+        Page<MemberTeamDto> page = memberRepository.searchPageComplex(condition, PageRequest.of(0, 10));
+        assertThat(page.getContent()).extracting("userName").containsExactly("member2", "member3");
+        assertThat(page.getContent()).extracting("teamName").containsOnly("teamB");
+        assertThat(page.getContent()).extracting("teamId").containsOnly(teamB.getId());
+        assertThat(memberRepository.search(condition)).extracting("teamName").containsOnly("teamB");
+
+        // 없는 팀 이름이면 team id 조회 한 번으로 끝나고 member 쿼리는 나가지 않음
+        condition.setTeamName("teamX");
+        try (StatementCounter.Scope scope = statementCounter.open()) {
+            assertThat(memberRepository.search(condition)).isEmpty();
+            assertThat(scope.getStatementCount()).isEqualTo(1);
+        }
     }
 
     @Test
@@ -0,0 +1,115 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.MemberSearchCondition;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.repository.support.CountQueryCache;
+import study.querydsl.repository.support.Querydsl4RepositorySupport;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+
+@SpringBootTest
+@Transactional
+@Import(MemberTestRepositoryTest.TwoCountRepository.class)
+class MemberTestRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    MemberTestRepository memberTestRepository;
+
+    @Autowired
+    CountQueryCache countQueryCache;
+
+    @Autowired
+    TwoCountRepository twoCountRepository;
+
+    @BeforeEach
+    public void before() {
+        countQueryCache.evictAll();
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+        for (int i = 0; i < 10; i++) {
+            em.persist(new Member("member" + i, i * 10, i % 2 == 0 ? teamA : teamB));
+        }
+        em.persist(new Member("noTeam", 100));
+    }
+
+    @Test
+    public void applyPagination2() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setTeamName("teamB");
+        condition.setAgeGoe(20);
+
+        Page<Member> result = memberTestRepository.applyPagination2(condition, PageRequest.of(0, 2));
+
+        // teamB: member1(10), 3(30), 5(50), 7(70), 9(90) 중 20살 이상
+        assertThat(result.getTotalElements()).isEqualTo(4);
+        assertThat(result.getContent()).hasSize(2);
+        assertThat(result.getContent()).extracting(member -> member.getTeam().getName()).containsOnly("teamB");
+    }
+
+    @Test
+    public void applyPagination2WithoutCondition() throws Exception {
+        Page<Member> result = memberTestRepository.applyPagination2(new MemberSearchCondition(), PageRequest.of(1, 3));
+
+        assertThat(result.getTotalElements()).isEqualTo(11);
+        assertThat(result.getContent()).hasSize(3);
+    }
+
+    @Test
+    public void countCacheIsSeparatedByQuery() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        PageRequest pageRequest = PageRequest.of(1, 3);
+
+        // 조건이 같아도 count 쿼리가 다르면 캐시된 total을 같이 쓰면 안 됨
+        assertThat(twoCountRepository.allMembers(condition, pageRequest).getTotalElements()).isEqualTo(11);
+        assertThat(twoCountRepository.membersWithTeam(condition, pageRequest).getTotalElements()).isEqualTo(10);
+        assertThat(twoCountRepository.allMembers(condition, pageRequest).getTotalElements()).isEqualTo(11);
+    }
+
+    @Test
+    public void searchPageByApplyPage() throws Exception {
+        MemberSearchCondition condition = new MemberSearchCondition();
+        condition.setUserName("member3");
+
+        Page<Member> result = memberTestRepository.searchPageByApplyPage(condition, PageRequest.of(0, 3));
+
+        assertThat(result.getTotalElements()).isEqualTo(1);
+        assertThat(result.getContent()).extracting("userName").containsExactly("member3");
+    }
+
+    static class TwoCountRepository extends Querydsl4RepositorySupport {
+
+        TwoCountRepository() {
+            super(Member.class);
+        }
+
+        public Page<Member> allMembers(MemberSearchCondition condition, Pageable pageable) {
+            return applyPagination(pageable, "allMembers", condition.normalize(),
+                    query -> query.selectFrom(member),
+                    query -> query.select(member.count()).from(member));
+        }
+
+        public Page<Member> membersWithTeam(MemberSearchCondition condition, Pageable pageable) {
+            return applyPagination(pageable, "membersWithTeam", condition.normalize(),
+                    query -> query.selectFrom(member).where(member.team.isNotNull()),
+                    query -> query.select(member.count()).from(member).where(member.team.isNotNull()));
+        }
+    }
+}
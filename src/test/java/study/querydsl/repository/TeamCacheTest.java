@@ -0,0 +1,110 @@
+package study.querydsl.repository;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * team-cache 프로필의 Team 2차 캐시 / 팀 이름 쿼리 캐시.
+ * 캐시는 커밋 시점에 채워지고 무효화되므로 테스트 트랜잭션 없이 트랜잭션을 나눠서 실행하고 끝나면 데이터를 지움
+ */
+@SpringBootTest
+@ActiveProfiles({"test", "team-cache"})
+class TeamCacheTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    EntityManagerFactory emf;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+    Statistics statistics;
+    Long teamId;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        SessionFactory sessionFactory = emf.unwrap(SessionFactory.class);
+        sessionFactory.getCache().evictAllRegions();
+        statistics = sessionFactory.getStatistics();
+        statistics.clear();
+
+        teamId = tx.execute(status -> {
+            Team team = new Team("cachedTeam");
+            em.persist(team);
+            return team.getId();
+        });
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void teamIsCached() throws Exception {
+        String first = tx.execute(status -> em.find(Team.class, teamId).getName());
+        long hits = statistics.getSecondLevelCacheHitCount();
+
+        // 다른 트랜잭션(다른 영속성 컨텍스트)에서 다시 조회하면 DB 대신 2차 캐시에서 읽음
+        String second = tx.execute(status -> em.find(Team.class, teamId).getName());
+
+        assertThat(second).isEqualTo(first).isEqualTo("cachedTeam");
+        assertThat(statistics.getSecondLevelCacheHitCount()).isEqualTo(hits + 1);
+    }
+
+    @Test
+    public void updatedTeamIsNotServedStale() throws Exception {
+        tx.execute(status -> em.find(Team.class, teamId));
+        tx.executeWithoutResult(status -> em.find(Team.class, teamId).setName("renamedTeam"));
+
+        String name = tx.execute(status -> em.find(Team.class, teamId).getName());
+
+        assertThat(name).isEqualTo("renamedTeam");
+    }
+
+    @Test
+    public void findIdsByNameIsCachedAndInvalidated() throws Exception {
+        assertThat(findIdsByName("cachedTeam")).containsExactly(teamId);
+        long queryHits = statistics.getQueryCacheHitCount();
+
+        assertThat(findIdsByName("cachedTeam")).containsExactly(teamId);
+        assertThat(statistics.getQueryCacheHitCount()).isEqualTo(queryHits + 1);
+
+        // team 테이블이 바뀌면 캐시된 결과를 쓰지 않고 다시 조회
+        tx.executeWithoutResult(status -> em.find(Team.class, teamId).setName("renamedTeam"));
+        long queryMisses = statistics.getQueryCacheMissCount();
+
+        assertThat(findIdsByName("cachedTeam")).isEmpty();
+        assertThat(findIdsByName("renamedTeam")).containsExactly(teamId);
+        assertThat(statistics.getQueryCacheMissCount()).isGreaterThan(queryMisses);
+    }
+
+    private List<Long> findIdsByName(String teamName) {
+        return tx.execute(status -> teamRepository.findIdsByName(teamName));
+    }
+}
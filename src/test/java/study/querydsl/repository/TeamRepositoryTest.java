@@ -0,0 +1,84 @@
+package study.querydsl.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.dto.TeamMembersDto;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+import study.querydsl.monitoring.StatementCounter;
+
+import javax.persistence.EntityManager;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@SpringBootTest
+@Transactional
+class TeamRepositoryTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    TeamRepository teamRepository;
+
+    @Autowired
+    StatementCounter statementCounter;
+
+    @BeforeEach
+    public void before() {
+        for (int i = 0; i < 100; i++) {
+            Team team = new Team("team" + i);
+            em.persist(team);
+            for (int j = 0; j < 3; j++) {
+                em.persist(new Member("member" + i + "_" + j, j, team));
+            }
+        }
+        em.flush();
+        em.clear();
+    }
+
+    @Test
+    public void searchTeamsWithMembers() throws Exception {
+        try (StatementCounter.Scope scope = statementCounter.open(1)) {
+            Page<TeamMembersDto> result = teamRepository.searchTeamsWithMembers(null, PageRequest.of(0, 100));
+
+            assertThat(result.getContent()).hasSize(100);
+            assertThat(result.getContent()).allSatisfy(team -> assertThat(team.getMembers()).hasSize(3));
+
+            // 팀 페이지 + members in (...) 한 번 + count. 팀마다 select 하지 않음
+            assertThat(scope.getStatementCount()).isLessThanOrEqualTo(3);
+            scope.assertNoRepeatedStatements();
+        }
+    }
+
+    @Test
+    public void memberTeamProxiesAreBatchLoaded() throws Exception {
+        try (StatementCounter.Scope scope = statementCounter.open(1)) {
+            List<Member> members = em.createQuery("select m from Member m", Member.class)
+                    .getResultList();
+            for (Member member : members) {
+                member.getTeam().getName();
+            }
+
+            // 팀 100개 프록시가 in (...) 한 번으로 초기화됨
+            assertThat(scope.getStatementCount()).isEqualTo(2);
+        }
+    }
+
+    @Test
+    public void findIdsByName() throws Exception {
+        Team team = teamRepository.findAll().stream()
+                .filter(t -> t.getName().equals("team7"))
+                .findFirst()
+                .orElseThrow();
+
+        assertThat(teamRepository.findIdsByName("team7")).containsExactly(team.getId());
+        assertThat(teamRepository.findIdsByName("none")).isEmpty();
+    }
+}
@@ -0,0 +1,76 @@
+package study.querydsl.repository.support;
+
+import com.querydsl.jpa.impl.JPAQuery;
+import com.querydsl.jpa.impl.JPAQueryFactory;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.annotation.Transactional;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static study.querydsl.entity.QMember.member;
+import static study.querydsl.entity.QTeam.team;
+import static study.querydsl.repository.support.CountQueryBuilder.countFrom;
+
+@SpringBootTest
+@Transactional
+class CountQueryBuilderTest {
+
+    @Autowired
+    EntityManager em;
+    JPAQueryFactory queryFactory;
+
+    @BeforeEach
+    public void before() {
+        queryFactory = new JPAQueryFactory(em);
+        Team teamA = new Team("teamA");
+        Team teamB = new Team("teamB");
+        em.persist(teamA);
+        em.persist(teamB);
+
+        em.persist(new Member("member1", 10, teamA));
+        em.persist(new Member("member2", 20, teamA));
+        em.persist(new Member("member3", 30, teamB));
+        em.persist(new Member("member4", 40, teamB));
+        em.persist(new Member("member5", 50));
+    }
+
+    @Test
+    public void joinIsPrunedWithoutTeamPredicate() throws Exception {
+        JPAQuery<Long> query = countFrom(queryFactory, member)
+                .leftJoin(member.team, team)
+                .where(member.age.goe(20), null)
+                .build();
+
+        // select count(member1) from Member member1 where member1.age >= ?1
+        assertThat(query.toString()).doesNotContain("join");
+        assertThat(query.fetchOne()).isEqualTo(4);
+    }
+
+    @Test
+    public void joinIsKeptWithTeamPredicate() throws Exception {
+        JPAQuery<Long> query = countFrom(queryFactory, member)
+                .leftJoin(member.team, team)
+                .where(member.age.goe(20), team.name.eq("teamB"))
+                .build();
+
+        assertThat(query.toString()).contains("left join");
+        assertThat(query.fetchOne()).isEqualTo(2);
+    }
+
+    @Test
+    public void noPredicateCountsAllRows() throws Exception {
+        Long count = countFrom(queryFactory, member)
+                .leftJoin(member.team, team)
+                .build()
+                .fetchOne();
+
+        // 팀이 없는 member5도 포함
+        assertThat(count).isEqualTo(5);
+    }
+}
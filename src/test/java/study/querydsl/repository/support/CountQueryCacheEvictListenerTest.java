@@ -0,0 +1,103 @@
+package study.querydsl.repository.support;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+import study.querydsl.entity.Member;
+import study.querydsl.entity.Team;
+
+import javax.persistence.EntityManager;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * 트랜잭션이 끝난 뒤에 비우는지 확인해야 해서 테스트 트랜잭션 없이 실행하고 끝나면 데이터를 지움
+ */
+@SpringBootTest
+class CountQueryCacheEvictListenerTest {
+
+    @Autowired
+    EntityManager em;
+
+    @Autowired
+    CountQueryCache countQueryCache;
+
+    @Autowired
+    CountQueryCacheEvictListener listener;
+
+    @Autowired
+    PlatformTransactionManager transactionManager;
+
+    TransactionTemplate tx;
+
+    @BeforeEach
+    public void before() {
+        tx = new TransactionTemplate(transactionManager);
+        countQueryCache.evictAll();
+    }
+
+    @AfterEach
+    public void after() {
+        tx.executeWithoutResult(status -> {
+            em.createQuery("delete from Member").executeUpdate();
+            em.createQuery("delete from Team").executeUpdate();
+        });
+    }
+
+    @Test
+    public void evictOnceAfterCommit() throws Exception {
+        cacheTotal();
+        long evictions = countQueryCache.getEvictCount();
+
+        tx.executeWithoutResult(status -> {
+            Team team = new Team("teamA");
+            em.persist(team);
+            for (int i = 0; i < 10; i++) {
+                em.persist(new Member("member" + i, i, team));
+            }
+            em.flush();
+            // row 11개가 들어갔어도 커밋 전에는 비우지 않음
+            assertThat(countQueryCache.getEvictCount()).isEqualTo(evictions);
+            assertThat(countQueryCache.size()).isEqualTo(1);
+        });
+
+        // 트랜잭션당 한 번
+        assertThat(countQueryCache.getEvictCount()).isEqualTo(evictions + 1);
+        assertThat(countQueryCache.size()).isZero();
+    }
+
+    @Test
+    public void evictOnceAfterRollback() throws Exception {
+        long evictions = countQueryCache.getEvictCount();
+
+        tx.executeWithoutResult(status -> {
+            em.persist(new Team("teamA"));
+            em.flush();
+            // 이 트랜잭션 안에서 센 count는 롤백된 row를 포함함
+            cacheTotal();
+            status.setRollbackOnly();
+        });
+
+        assertThat(countQueryCache.getEvictCount()).isEqualTo(evictions + 1);
+        assertThat(countQueryCache.size()).isZero();
+    }
+
+    @Test
+    public void evictImmediatelyWithoutTransaction() throws Exception {
+        cacheTotal();
+        long evictions = countQueryCache.getEvictCount();
+
+        listener.evict(new Team("teamA"));
+
+        assertThat(countQueryCache.getEvictCount()).isEqualTo(evictions + 1);
+        assertThat(countQueryCache.size()).isZero();
+    }
+
+    private void cacheTotal() {
+        countQueryCache.getTotal("test", "key", () -> 1);
+    }
+}